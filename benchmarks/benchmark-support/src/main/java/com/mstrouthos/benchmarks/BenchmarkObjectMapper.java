@@ -0,0 +1,24 @@
+package com.mstrouthos.benchmarks;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+
+/**
+ * ObjectMapper configured like the one Quarkus provides to the services.
+ * Shared by the benchmark modules of both services.
+ */
+public final class BenchmarkObjectMapper {
+
+    private BenchmarkObjectMapper() {}
+
+    public static ObjectMapper create() {
+        return JsonMapper.builder()
+            .findAndAddModules()
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .disable(SerializationFeature.WRITE_DURATIONS_AS_TIMESTAMPS)
+            .build();
+    }
+}
@@ -0,0 +1,107 @@
+package com.mstrouthos.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.mstrouthos.dto.SmsCallback;
+import com.mstrouthos.dto.SmsMessage;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-message mapping in SmsQueueConsumerService. The consumer binds the broker payload
+ * directly from bytes; the JsonObject variants measure the former connector-parsed path.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MessageMappingBenchmark {
+
+    // Payload as published by sms-service for one queued message
+    private static final String QUEUED_MESSAGE =
+        "{\"id\":1234567,\"phoneNumber\":\"+35799123456\",\"text\":\"Your verification code is 482913\"," +
+        "\"createdAt\":\"2025-06-01T12:30:15.123456\",\"status\":\"QUEUED\"}";
+
+    private ObjectMapper objectMapper;
+    private ObjectReader messageReader;
+    private ObjectReader cborMessageReader;
+    private ObjectWriter callbackWriter;
+    private byte[] payload;
+    private byte[] cborPayload;
+    private JsonObject parsedPayload;
+    private SmsCallback callback;
+
+    @Setup
+    public void setup() throws IOException {
+        objectMapper = BenchmarkObjectMapper.create();
+        messageReader = objectMapper.readerFor(SmsMessage.class);
+        callbackWriter = objectMapper.writerFor(SmsCallback.class);
+        payload = QUEUED_MESSAGE.getBytes(StandardCharsets.UTF_8);
+
+        CBORMapper cborMapper = CBORMapper.builder()
+            .addMixIn(SmsMessage.class, SmsMessage.CompactLayout.class)
+            .build();
+        cborMessageReader = cborMapper.readerFor(SmsMessage.class);
+        cborPayload = cborMapper.writeValueAsBytes(
+            List.of(1234567, "+35799123456", "Your verification code is 482913", "2025-06-01T12:30:15.123456"));
+        parsedPayload = new JsonObject(Buffer.buffer(payload));
+        callback = new SmsCallback("1234567", "delivered", null, "2025-06-01 12:30:16");
+    }
+
+    /**
+     * Consumer path: bytes bound directly to SmsMessage.
+     */
+    @Benchmark
+    public SmsMessage bytesToMessage() throws IOException {
+        return messageReader.readValue(payload);
+    }
+
+    /**
+     * Consumer path for application/cbor messages.
+     */
+    @Benchmark
+    public SmsMessage cborBytesToMessage() throws IOException {
+        return cborMessageReader.readValue(cborPayload);
+    }
+
+    /**
+     * Former consumer path: bytes to JsonObject (connector) to SmsMessage (convertValue).
+     */
+    @Benchmark
+    public SmsMessage bytesToJsonObjectToMessage() {
+        JsonObject message = new JsonObject(Buffer.buffer(payload));
+        return objectMapper.convertValue(message.getMap(), SmsMessage.class);
+    }
+
+    /**
+     * Only the convertValue step on an already parsed payload.
+     */
+    @Benchmark
+    public SmsMessage convertValue() {
+        return objectMapper.convertValue(parsedPayload.getMap(), SmsMessage.class);
+    }
+
+    @Benchmark
+    public byte[] serializeCallback() throws IOException {
+        return callbackWriter.writeValueAsBytes(callback);
+    }
+}
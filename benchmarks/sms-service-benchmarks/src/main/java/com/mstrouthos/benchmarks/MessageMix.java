@@ -0,0 +1,44 @@
+package com.mstrouthos.benchmarks;
+
+import com.mstrouthos.dto.SmsMessage;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Queued messages resembling production traffic: mostly one-time codes, some transactional
+ * notifications and a share of full-length marketing texts, a few of them non-GSM.
+ */
+final class MessageMix {
+
+    private static final String[] TEXTS = {
+        "Your verification code is 482913",
+        "Your verification code is 105577",
+        "Your verification code is 390264",
+        "Your verification code is 771840",
+        "Your verification code is 624015",
+        "Your verification code is 958302",
+        "Your order #48213 has been shipped and will arrive on Thursday. Track it at https://sh.example/t/48213",
+        "Payment of EUR 42.90 to ACME Stores was approved. Not you? Call 80001234",
+        "Reminder: your appointment is tomorrow at 10:30. Reply C to cancel.",
+        "Summer sale! Up to 50% off on all items this weekend only. Visit our stores or shop online at https://example.com/sale. Reply STOP to opt out.",
+        "Καλοκαιρινές εκπτώσεις έως 50% σε όλα τα προϊόντα αυτό το Σαββατοκύριακο! Απάντησε STOP για διαγραφή.",
+    };
+
+    private MessageMix() {}
+
+    static List<SmsMessage> create(int size) {
+        List<SmsMessage> messages = new ArrayList<>(size);
+        LocalDateTime createdAt = LocalDateTime.of(2025, 6, 1, 12, 30, 15, 123456000);
+        for (int i = 0; i < size; i++) {
+            SmsMessage message = new SmsMessage(
+                String.format("+3579%07d", (i * 7919) % 10_000_000), TEXTS[i % TEXTS.length]);
+            message.id = 1_000_000L + i;
+            message.createdAt = createdAt.plusNanos(i * 1000L);
+            message.status = "QUEUED";
+            messages.add(message);
+        }
+        return messages;
+    }
+}
@@ -0,0 +1,71 @@
+package com.mstrouthos.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.mstrouthos.dto.SmsCallback;
+import com.mstrouthos.dto.SmsMessage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson binding of the payloads sms-service reads and writes per message:
+ * send requests, queued messages and status callbacks.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SerializationBenchmark {
+
+    private ObjectWriter messageWriter;
+    private ObjectReader messageReader;
+    private ObjectReader callbackReader;
+    private SmsMessage message;
+    private byte[] sendRequest;
+    private byte[] callback;
+
+    @Setup
+    public void setup() throws IOException {
+        var objectMapper = BenchmarkObjectMapper.create();
+        messageWriter = objectMapper.writerFor(SmsMessage.class);
+        messageReader = objectMapper.readerFor(SmsMessage.class);
+        callbackReader = objectMapper.readerFor(SmsCallback.class);
+
+        message = new SmsMessage("+35799123456", "Your verification code is 482913");
+        message.id = 1234567L;
+        message.createdAt = LocalDateTime.of(2025, 6, 1, 12, 30, 15, 123456000);
+
+        sendRequest = "{\"phoneNumber\":\"+35799123456\",\"text\":\"Your verification code is 482913\"}".getBytes();
+        callback = objectMapper.writeValueAsBytes(
+            new SmsCallback("1234567", "delivered", null, "2025-06-01 12:30:16"));
+    }
+
+    @Benchmark
+    public byte[] serializeQueuedMessage() throws IOException {
+        return messageWriter.writeValueAsBytes(message);
+    }
+
+    @Benchmark
+    public SmsMessage deserializeSendRequest() throws IOException {
+        return messageReader.readValue(sendRequest);
+    }
+
+    @Benchmark
+    public SmsCallback deserializeCallback() throws IOException {
+        return callbackReader.readValue(callback);
+    }
+}
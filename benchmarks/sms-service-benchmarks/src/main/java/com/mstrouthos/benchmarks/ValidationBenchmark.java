@@ -0,0 +1,64 @@
+package com.mstrouthos.benchmarks;
+
+import com.mstrouthos.dto.SmsMessage;
+import com.mstrouthos.validation.SmsValidator;
+import com.mstrouthos.validation.ValidationResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Request validation, run for every message of every send.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ValidationBenchmark {
+
+    private SmsValidator validator;
+    private SmsMessage validMessage;
+    private SmsMessage formattedMessage;
+    private SmsMessage invalidMessage;
+    private ValidationResult failedResult;
+
+    @Setup
+    public void setup() {
+        validator = new SmsValidator();
+        validMessage = new SmsMessage("+35799123456", "Your verification code is 482913");
+        formattedMessage = new SmsMessage("+357 (99) 123-456", "Your verification code is 482913");
+        invalidMessage = new SmsMessage("0099-123", "x".repeat(200));
+        failedResult = validator.validateSmsRequest(invalidMessage);
+    }
+
+    @Benchmark
+    public ValidationResult validateValid() {
+        return validator.validateSmsRequest(validMessage);
+    }
+
+    @Benchmark
+    public ValidationResult validateFormattedPhoneNumber() {
+        return validator.validateSmsRequest(formattedMessage);
+    }
+
+    @Benchmark
+    public ValidationResult validateInvalid() {
+        return validator.validateSmsRequest(invalidMessage);
+    }
+
+    @Benchmark
+    public String errorDetailsJson() {
+        return failedResult.getErrorDetailsJson();
+    }
+}
@@ -0,0 +1,89 @@
+package com.mstrouthos.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.mstrouthos.dto.SmsMessage;
+import com.mstrouthos.service.SmsQueueCodec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding cost of the sms-queue wire formats over {@link MessageMix}.
+ * Run main() for the average payload size of each format.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WireFormatBenchmark {
+
+    private static final int MIX_SIZE = 1000;
+
+    private ObjectWriter jsonWriter;
+    private ObjectWriter cborWriter;
+    private List<SmsMessage> messages;
+
+    @Setup
+    public void setup() {
+        jsonWriter = jsonWriter();
+        cborWriter = cborWriter();
+        messages = MessageMix.create(MIX_SIZE);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MIX_SIZE)
+    public void encodeJson(Blackhole blackhole) throws IOException {
+        for (SmsMessage message : messages) {
+            blackhole.consume(jsonWriter.writeValueAsBytes(message));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MIX_SIZE)
+    public void encodeCbor(Blackhole blackhole) throws IOException {
+        for (SmsMessage message : messages) {
+            blackhole.consume(cborWriter.writeValueAsBytes(message));
+        }
+    }
+
+    private static ObjectWriter jsonWriter() {
+        return BenchmarkObjectMapper.create().writerFor(SmsMessage.class);
+    }
+
+    private static ObjectWriter cborWriter() {
+        return SmsQueueCodec.compactWriter();
+    }
+
+    /**
+     * Prints the average encoded size per message for each wire format.
+     */
+    public static void main(String[] args) throws IOException {
+        List<SmsMessage> messages = MessageMix.create(MIX_SIZE);
+        long json = 0;
+        long cbor = 0;
+        ObjectWriter jsonWriter = jsonWriter();
+        ObjectWriter cborWriter = cborWriter();
+        for (SmsMessage message : messages) {
+            json += jsonWriter.writeValueAsBytes(message).length;
+            cbor += cborWriter.writeValueAsBytes(message).length;
+        }
+        System.out.printf("json: %d bytes/message%n", json / messages.size());
+        System.out.printf("cbor: %d bytes/message (%.0f%% of json)%n",
+            cbor / messages.size(), 100.0 * cbor / json);
+    }
+}
@@ -0,0 +1,44 @@
+#!/bin/bash
+
+# Measures sms-service insert throughput through the bulk send endpoint.
+# Run it once against a build with IDENTITY ids and once against a build with the
+# pooled sequence, with the same arguments, and compare the reported messages/s.
+#
+# Usage: ./measure-insert-throughput.sh [base-url] [batch-size] [batches]
+
+BASE_URL=${1:-http://localhost:8081}
+BATCH_SIZE=${2:-1000}
+BATCHES=${3:-20}
+
+payload=$(mktemp)
+trap 'rm -f "$payload"' EXIT
+
+# Build one batch of valid messages with distinct phone numbers
+{
+    echo -n "["
+    for ((i = 0; i < BATCH_SIZE; i++)); do
+        [ $i -gt 0 ] && echo -n ","
+        printf '{"phoneNumber":"+3579%07d","text":"Throughput test %d"}' "$i" "$i"
+    done
+    echo -n "]"
+} > "$payload"
+
+echo "Sending $BATCHES batches of $BATCH_SIZE messages to $BASE_URL/api/sms/send/batch"
+
+start=$(date +%s.%N)
+for ((b = 0; b < BATCHES; b++)); do
+    status=$(curl -s -o /dev/null -w "%{http_code}" \
+        -H "Content-Type: application/json" \
+        --data-binary @"$payload" \
+        "$BASE_URL/api/sms/send/batch")
+    if [ "$status" != "200" ]; then
+        echo "Batch $b failed with HTTP $status"
+        exit 1
+    fi
+done
+end=$(date +%s.%N)
+
+total=$((BATCH_SIZE * BATCHES))
+elapsed=$(echo "$end - $start" | bc -l)
+echo "Inserted $total messages in ${elapsed}s"
+echo "Throughput: $(echo "$total / $elapsed" | bc -l | xargs printf '%.0f') messages/s"
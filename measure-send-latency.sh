@@ -0,0 +1,26 @@
+#!/bin/bash
+
+# Measures /api/sms/send latency under concurrent load with hey (https://github.com/rakyll/hey).
+# Compare request handling modes by running it against sms-service started with
+# QUARKUS_VIRTUAL_THREADS_ENABLED=true and with QUARKUS_VIRTUAL_THREADS_ENABLED=false.
+# Compare the blocking and reactive implementations on one instance by passing /api/sms/send
+# and /api/sms/reactive/send as path, e.g. at concurrency 1000.
+#
+# Usage: ./measure-send-latency.sh [base-url] [concurrency] [requests] [path]
+
+BASE_URL=${1:-http://localhost:8081}
+CONCURRENCY=${2:-200}
+REQUESTS=${3:-20000}
+SEND_PATH=${4:-/api/sms/send}
+
+if ! command -v hey > /dev/null; then
+    echo "hey is required: go install github.com/rakyll/hey@latest"
+    exit 1
+fi
+
+echo "Sending $REQUESTS requests with concurrency $CONCURRENCY to $BASE_URL$SEND_PATH"
+
+hey -n "$REQUESTS" -c "$CONCURRENCY" -m POST \
+    -H "Content-Type: application/json" \
+    -d '{"phoneNumber":"+35799123456","text":"Latency test"}' \
+    "$BASE_URL$SEND_PATH"
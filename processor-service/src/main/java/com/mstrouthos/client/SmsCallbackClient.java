@@ -8,6 +8,7 @@ import jakarta.ws.rs.*;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
+import java.util.List;
 import java.util.concurrent.CompletionStage;
 
 @RegisterRestClient(configKey = "sms-callback-api")
@@ -19,4 +20,9 @@ public interface SmsCallbackClient {
     @Path("/callback")
     @Consumes(MediaType.APPLICATION_JSON)
     CompletionStage<Response> sendCallback(SmsCallback callback);
+
+    @POST
+    @Path("/callback/batch")
+    @Consumes(MediaType.APPLICATION_JSON)
+    CompletionStage<Response> sendCallbacks(List<SmsCallback> callbacks);
 }
\ No newline at end of file
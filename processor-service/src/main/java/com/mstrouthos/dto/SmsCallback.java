@@ -14,6 +14,10 @@ public class SmsCallback {
     
     @JsonProperty("delivered_at")
     public String deliveredAt;
+
+    /** Creation time of the message as queued, lets the status update prune to its partition */
+    @JsonProperty("created_at")
+    public String createdAt;
     
     // Constructors
     public SmsCallback() {}
@@ -1,30 +1,27 @@
 package com.mstrouthos.dto;
 
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
 
-public class SmsMessage {
-    @JsonProperty("id")
-    public String id;
-    
-    @JsonProperty("phone_number")
-    public String phoneNumber;
-    
-    @JsonProperty("message")
-    public String message;
-    
-    @JsonProperty("created_at")
-    public String createdAt;
+/**
+ * Queued SMS message as published by sms-service on sms-queue.
+ * Only the fields the processor needs are bound; the rest of the payload is skipped.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record SmsMessage(
+    @JsonProperty("id") String id,
+    @JsonProperty("phoneNumber") String phoneNumber,
+    @JsonProperty("text") String text,
+    @JsonProperty("createdAt") String createdAt
+) {
 
-    @JsonProperty("status")
-    public String status;
-    
-    public SmsMessage() {}
-    
-    public SmsMessage(String id, String phoneNumber, String message, String createdAt, String status) {
-        this.id = id;
-        this.phoneNumber = phoneNumber;
-        this.message = message;
-        this.createdAt = createdAt;
-        this.status = status;
-    }
-}
\ No newline at end of file
+    /**
+     * Mix-in for the compact CBOR encoding: a positional array of [id, phoneNumber, text, createdAt].
+     * Must match sms-service's SmsQueueCodec; createdAt is missing from messages of older senders.
+     */
+    @JsonFormat(shape = JsonFormat.Shape.ARRAY)
+    @JsonPropertyOrder({"id", "phoneNumber", "text", "createdAt"})
+    public abstract static class CompactLayout {}
+}
@@ -0,0 +1,11 @@
+package com.mstrouthos.dto;
+
+/**
+ * Delivery class of an SMS message, given by the queue it was received from.
+ */
+public enum SmsPriority {
+    /** OTP and other transactional messages, received on sms-queue-priority */
+    HIGH,
+    /** Campaigns and other bulk traffic, received on sms-queue */
+    BULK
+}
@@ -0,0 +1,137 @@
+package com.mstrouthos.service;
+
+import com.mstrouthos.client.SmsCallbackClient;
+import com.mstrouthos.dto.SmsCallback;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.rest.client.inject.RestClient;
+import org.jboss.logging.Logger;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Collects status callbacks and posts them to sms-service in batches.
+ * A batch is sent as soon as it reaches {@code sms.callback.batch.size} entries, or
+ * {@code sms.callback.batch.max-delay-ms} after its first entry was added, whichever comes first.
+ */
+@ApplicationScoped
+public class CallbackBatcher {
+    private static final Logger LOG = Logger.getLogger(CallbackBatcher.class);
+
+    @Inject
+    @RestClient
+    SmsCallbackClient callbackClient;
+
+    @ConfigProperty(name = "sms.callback.batch.size", defaultValue = "200")
+    int batchSize;
+
+    @ConfigProperty(name = "sms.callback.batch.max-delay-ms", defaultValue = "100")
+    long maxDelayMs;
+
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "callback-batcher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private List<SmsCallback> callbacks = new ArrayList<>();
+    private List<CompletableFuture<Void>> waiters = new ArrayList<>();
+    private ScheduledFuture<?> pendingFlush;
+
+    /**
+     * Adds a callback to the current batch.
+     *
+     * @param callback Callback to deliver
+     * @return Stage completed once the batch containing the callback was accepted by sms-service
+     */
+    public CompletionStage<Void> submit(SmsCallback callback) {
+        CompletableFuture<Void> delivered = new CompletableFuture<>();
+        List<SmsCallback> fullBatch = null;
+        List<CompletableFuture<Void>> fullWaiters = null;
+
+        lock.lock();
+        try {
+            callbacks.add(callback);
+            waiters.add(delivered);
+
+            if (callbacks.size() >= batchSize) {
+                fullBatch = callbacks;
+                fullWaiters = waiters;
+                reset();
+            } else if (callbacks.size() == 1) {
+                pendingFlush = timer.schedule(this::flushPending, maxDelayMs, TimeUnit.MILLISECONDS);
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (fullBatch != null) {
+            post(fullBatch, fullWaiters);
+        }
+        return delivered;
+    }
+
+    private void flushPending() {
+        List<SmsCallback> batch;
+        List<CompletableFuture<Void>> batchWaiters;
+
+        lock.lock();
+        try {
+            if (callbacks.isEmpty()) {
+                return;
+            }
+            batch = callbacks;
+            batchWaiters = waiters;
+            reset();
+        } finally {
+            lock.unlock();
+        }
+
+        post(batch, batchWaiters);
+    }
+
+    private void reset() {
+        callbacks = new ArrayList<>(batchSize);
+        waiters = new ArrayList<>(batchSize);
+        if (pendingFlush != null) {
+            pendingFlush.cancel(false);
+            pendingFlush = null;
+        }
+    }
+
+    private void post(List<SmsCallback> batch, List<CompletableFuture<Void>> batchWaiters) {
+        LOG.debugf("Sending callback batch with %d entries", batch.size());
+
+        callbackClient.sendCallbacks(batch).whenComplete((response, throwable) -> {
+            if (throwable != null) {
+                LOG.errorf("Error sending callback batch of %d entries: %s", batch.size(), throwable.getMessage());
+                batchWaiters.forEach(waiter -> waiter.completeExceptionally(throwable));
+            } else if (response.getStatus() >= 200 && response.getStatus() < 300) {
+                LOG.infof("Successfully sent callback batch with %d entries", batch.size());
+                batchWaiters.forEach(waiter -> waiter.complete(null));
+            } else {
+                LOG.errorf("Failed to send callback batch of %d entries. Status: %d", batch.size(), response.getStatus());
+                IllegalStateException failure = new IllegalStateException(
+                    "Callback batch rejected with status " + response.getStatus());
+                batchWaiters.forEach(waiter -> waiter.completeExceptionally(failure));
+            }
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flushPending();
+        timer.shutdown();
+    }
+}
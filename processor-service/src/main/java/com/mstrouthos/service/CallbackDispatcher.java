@@ -0,0 +1,64 @@
+package com.mstrouthos.service;
+
+import com.mstrouthos.client.SmsCallbackClient;
+import com.mstrouthos.dto.SmsCallback;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.rest.client.inject.RestClient;
+import org.jboss.logging.Logger;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Delivers status callbacks to sms-service over the transport selected by {@code sms.callback.transport}.
+ */
+@ApplicationScoped
+public class CallbackDispatcher {
+    private static final Logger LOG = Logger.getLogger(CallbackDispatcher.class);
+
+    @Inject
+    @RestClient
+    SmsCallbackClient callbackClient;
+
+    @Inject
+    CallbackBatcher callbackBatcher;
+
+    @Inject
+    StatusEventPublisher statusEventPublisher;
+
+    @ConfigProperty(name = "sms.callback.transport", defaultValue = "http-batch")
+    CallbackTransport transport;
+
+    /**
+     * Hands a callback to the configured transport.
+     *
+     * @return Stage completed once sms-service (or the broker, for RABBITMQ) accepted the callback
+     */
+    public CompletionStage<Void> dispatch(SmsCallback callback) {
+        switch (transport) {
+            case HTTP:
+                return sendCallback(callback);
+            case RABBITMQ:
+                return statusEventPublisher.publish(callback);
+            case HTTP_BATCH:
+            default:
+                return callbackBatcher.submit(callback);
+        }
+    }
+
+    /**
+     * Posts a single callback; a non-2xx response fails the stage so the callback is retried.
+     */
+    private CompletionStage<Void> sendCallback(SmsCallback callback) {
+        return callbackClient.sendCallback(callback)
+            .thenAccept(response -> {
+                if (response.getStatus() >= 200 && response.getStatus() < 300) {
+                    LOG.infof("Successfully sent callback for SMS %s", callback.id);
+                } else {
+                    throw new IllegalStateException("Callback for SMS " + callback.id
+                        + " rejected with status " + response.getStatus());
+                }
+            });
+    }
+}
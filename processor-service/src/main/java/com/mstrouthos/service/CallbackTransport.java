@@ -0,0 +1,13 @@
+package com.mstrouthos.service;
+
+/**
+ * How status callbacks are delivered to sms-service.
+ */
+public enum CallbackTransport {
+    /** One POST /api/sms/callback per message */
+    HTTP,
+    /** Size/time bounded batches posted to /api/sms/callback/batch */
+    HTTP_BATCH,
+    /** Status events published to the sms-status RabbitMQ exchange */
+    RABBITMQ
+}
@@ -0,0 +1,192 @@
+package com.mstrouthos.service;
+
+import io.quarkus.scheduler.Scheduled;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Egress rate limiter keyed by destination prefix.
+ *
+ * Each prefix is a token bucket implemented as GCRA: its whole state is the theoretical arrival
+ * time of the next message, held in an AtomicLong and advanced with compare-and-set, so callers
+ * never block each other and different prefixes share no state. Numbers are matched against the
+ * longest configured prefix. Numbers without a match are not limited unless a default limit is set
+ * ({@code sms.rate-limit.default-rate} or a {@code default} entry), which they then share.
+ *
+ * Limits are read from {@code sms.rate-limit.file} (a properties file of {@code prefix=rate[,burst]}
+ * entries, rate in messages per second) and reloaded when the file changes.
+ */
+@ApplicationScoped
+public class DestinationRateLimiter {
+    private static final Logger LOG = Logger.getLogger(DestinationRateLimiter.class);
+
+    static final String DEFAULT_PREFIX = "default";
+
+    @ConfigProperty(name = "sms.rate-limit.enabled", defaultValue = "true")
+    boolean enabled;
+
+    @ConfigProperty(name = "sms.rate-limit.default-rate")
+    Optional<Double> defaultRate;
+
+    @ConfigProperty(name = "sms.rate-limit.file")
+    Optional<String> limitsFile;
+
+    private final ConcurrentHashMap<String, AtomicLong> arrivals = new ConcurrentHashMap<>();
+    private volatile Limits limits;
+    private volatile long limitsFileModified = Long.MIN_VALUE;
+
+    @PostConstruct
+    void init() {
+        limits = new Limits(Map.of(), defaultLimit(), 0);
+        reload();
+    }
+
+    /**
+     * Reserves a send slot for the given destination.
+     *
+     * @param phoneNumber Destination number
+     * @return Nanoseconds to wait before sending, 0 to send right away
+     */
+    public long reserve(String phoneNumber) {
+        if (!enabled) {
+            return 0;
+        }
+
+        Limits current = limits;
+        String prefix = current.match(phoneNumber);
+        Limit limit = current.limitOf(prefix);
+        if (limit == null) {
+            return 0;
+        }
+
+        long now = System.nanoTime();
+        AtomicLong arrival = arrivals.get(prefix);
+        if (arrival == null) {
+            arrival = arrivals.computeIfAbsent(prefix, key -> new AtomicLong(now));
+        }
+
+        while (true) {
+            long theoreticalArrival = arrival.get();
+            long next = Math.max(theoreticalArrival, now) + limit.intervalNanos();
+            if (arrival.compareAndSet(theoreticalArrival, next)) {
+                return Math.max(0, next - now - limit.toleranceNanos());
+            }
+        }
+    }
+
+    /**
+     * Reloads the limits file if it changed since it was last read.
+     * The current limits are kept when the file cannot be read or parsed.
+     */
+    @Scheduled(every = "${sms.rate-limit.reload-interval:30s}", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void reload() {
+        if (limitsFile.isEmpty()) {
+            return;
+        }
+
+        Path path = Path.of(limitsFile.get());
+        try {
+            long modified = Files.getLastModifiedTime(path).toMillis();
+            if (modified == limitsFileModified) {
+                return;
+            }
+
+            Properties properties = new Properties();
+            try (Reader reader = Files.newBufferedReader(path)) {
+                properties.load(reader);
+            }
+            limits = parse(properties);
+            limitsFileModified = modified;
+            LOG.infof("Loaded %d destination rate limits from %s", limits.byPrefix().size(), path);
+        } catch (IOException | IllegalArgumentException e) {
+            LOG.errorf("Failed to load rate limits from %s, keeping current limits: %s", path, e.getMessage());
+        }
+    }
+
+    private Limits parse(Properties properties) {
+        Map<String, Limit> byPrefix = new HashMap<>();
+        Limit defaultLimit = defaultLimit();
+        int maxPrefixLength = 0;
+
+        for (String prefix : properties.stringPropertyNames()) {
+            Limit limit = parseLimit(prefix, properties.getProperty(prefix).trim());
+            if (DEFAULT_PREFIX.equals(prefix)) {
+                defaultLimit = limit;
+            } else {
+                byPrefix.put(prefix, limit);
+                maxPrefixLength = Math.max(maxPrefixLength, prefix.length());
+            }
+        }
+        return new Limits(Map.copyOf(byPrefix), defaultLimit, maxPrefixLength);
+    }
+
+    private static Limit parseLimit(String prefix, String value) {
+        String[] parts = value.split(",");
+        try {
+            double rate = Double.parseDouble(parts[0].trim());
+            int burst = parts.length > 1 ? Integer.parseInt(parts[1].trim()) : defaultBurst(rate);
+            if (rate <= 0 || burst < 1) {
+                throw new IllegalArgumentException("Rate and burst must be positive for " + prefix);
+            }
+            return Limit.of(rate, burst);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid limit '" + value + "' for " + prefix);
+        }
+    }
+
+    // Null (unlimited) unless sms.rate-limit.default-rate is set
+    private Limit defaultLimit() {
+        return defaultRate.map(rate -> Limit.of(rate, defaultBurst(rate))).orElse(null);
+    }
+
+    // One second worth of messages
+    private static int defaultBurst(double rate) {
+        return Math.max(1, (int) Math.ceil(rate));
+    }
+
+    /**
+     * GCRA parameters: one message per interval, up to burst messages without waiting.
+     */
+    record Limit(long intervalNanos, long toleranceNanos) {
+        static Limit of(double ratePerSecond, int burst) {
+            long interval = (long) (TimeUnit.SECONDS.toNanos(1) / ratePerSecond);
+            return new Limit(interval, interval * burst);
+        }
+    }
+
+    /**
+     * @param defaultLimit Limit shared by numbers without a matching prefix, null if they are not limited
+     */
+    record Limits(Map<String, Limit> byPrefix, Limit defaultLimit, int maxPrefixLength) {
+
+        String match(String phoneNumber) {
+            if (phoneNumber != null) {
+                for (int length = Math.min(maxPrefixLength, phoneNumber.length()); length > 0; length--) {
+                    String prefix = phoneNumber.substring(0, length);
+                    if (byPrefix.containsKey(prefix)) {
+                        return prefix;
+                    }
+                }
+            }
+            return DEFAULT_PREFIX;
+        }
+
+        Limit limitOf(String prefix) {
+            return byPrefix.getOrDefault(prefix, defaultLimit);
+        }
+    }
+}
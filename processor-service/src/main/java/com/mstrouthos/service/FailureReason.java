@@ -0,0 +1,44 @@
+package com.mstrouthos.service;
+
+/**
+ * Why sending an SMS or delivering its callback failed. Each reason has its own {@link RetryPolicy},
+ * configured under {@code sms.retry.<key>}.
+ */
+public enum FailureReason {
+    NETWORK_TIMEOUT("Network timeout", true),
+    SERVICE_UNAVAILABLE("SMS service unavailable", true),
+    RATE_LIMITED("Rate limit exceeded", true),
+    /** Resending the same payload would fail again */
+    INVALID_FORMAT("Invalid message format", false),
+    /** The status callback could not be delivered to sms-service */
+    CALLBACK_FAILED("Callback delivery failed", true);
+
+    private final String message;
+    private final boolean transientFailure;
+
+    FailureReason(String message, boolean transientFailure) {
+        this.message = message;
+        this.transientFailure = transientFailure;
+    }
+
+    /**
+     * @return Error message reported to sms-service
+     */
+    public String message() {
+        return message;
+    }
+
+    /**
+     * @return Whether another attempt may succeed; permanent failures default to a single attempt
+     */
+    public boolean isTransient() {
+        return transientFailure;
+    }
+
+    /**
+     * @return Configuration key, e.g. network-timeout
+     */
+    public String key() {
+        return name().toLowerCase().replace('_', '-');
+    }
+}
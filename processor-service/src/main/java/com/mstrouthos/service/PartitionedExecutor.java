@@ -0,0 +1,150 @@
+package com.mstrouthos.service;
+
+import com.mstrouthos.dto.SmsPriority;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import java.util.ArrayDeque;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Runs tasks on a fixed number of single-threaded lanes, chosen by a partition key.
+ * Tasks with the same key and priority always run on the same lane in submission order, while tasks
+ * with different keys are spread over {@code sms.consumer.concurrency} lanes and run in parallel.
+ * Keys are phone numbers, which sms-service normalizes before queueing, so every spelling of a number
+ * (e.g. "+357 99 123456" and "+35799123456") arrives as the same key and maps to the same lane.
+ * Lane threads are virtual unless {@code sms.consumer.virtual-threads} is false, so a lane blocked
+ * on I/O does not hold a carrier thread.
+ *
+ * Each lane keeps one queue per priority and serves them weighted: while both have work, up to
+ * {@code sms.consumer.high-priority-weight} high priority tasks run for every bulk task, so high
+ * priority work never waits behind a bulk backlog and bulk work is never starved.
+ */
+@ApplicationScoped
+public class PartitionedExecutor {
+    private static final Logger LOG = Logger.getLogger(PartitionedExecutor.class);
+
+    @ConfigProperty(name = "sms.consumer.concurrency", defaultValue = "8")
+    int concurrency;
+
+    @ConfigProperty(name = "sms.consumer.virtual-threads", defaultValue = "true")
+    boolean virtualThreads;
+
+    @ConfigProperty(name = "sms.consumer.high-priority-weight", defaultValue = "8")
+    int highPriorityWeight;
+
+    private Lane[] lanes;
+
+    @PostConstruct
+    void start() {
+        lanes = new Lane[concurrency];
+        for (int i = 0; i < concurrency; i++) {
+            ThreadFactory threadFactory = virtualThreads
+                ? Thread.ofVirtual().name("sms-lane-" + i).factory()
+                : Thread.ofPlatform().name("sms-lane-" + i).daemon(true).factory();
+            lanes[i] = new Lane(threadFactory);
+        }
+        LOG.infof("Started %d SMS processing lanes on %s threads",
+                  concurrency, virtualThreads ? "virtual" : "platform");
+    }
+
+    /**
+     * Submits a task to the lane owning the given key.
+     *
+     * @param key Partition key; tasks with equal keys and priority never overtake each other
+     * @param priority Queue of the lane the task is added to
+     * @param task Task to run
+     */
+    public void execute(String key, SmsPriority priority, Runnable task) {
+        lanes[laneOf(key)].add(priority, task);
+    }
+
+    private int laneOf(String key) {
+        if (key == null) {
+            return 0;
+        }
+        int hash = key.hashCode();
+        // Spread the high bits, String.hashCode varies little in the low bits for similar numbers
+        hash ^= (hash >>> 16);
+        return Math.floorMod(hash, lanes.length);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        for (Lane lane : lanes) {
+            lane.stop();
+        }
+    }
+
+    private final class Lane implements Runnable {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition notEmpty = lock.newCondition();
+        private final ArrayDeque<Runnable> high = new ArrayDeque<>();
+        private final ArrayDeque<Runnable> bulk = new ArrayDeque<>();
+        private final Thread thread;
+        private int highStreak;
+        private boolean running = true;
+
+        Lane(ThreadFactory threadFactory) {
+            thread = threadFactory.newThread(this);
+            thread.start();
+        }
+
+        void add(SmsPriority priority, Runnable task) {
+            lock.lock();
+            try {
+                (priority == SmsPriority.HIGH ? high : bulk).add(task);
+                notEmpty.signal();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void stop() {
+            lock.lock();
+            try {
+                running = false;
+                notEmpty.signal();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void run() {
+            Runnable task;
+            while ((task = take()) != null) {
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    LOG.errorf(e, "SMS processing task failed on %s", thread.getName());
+                }
+            }
+        }
+
+        private Runnable take() {
+            lock.lock();
+            try {
+                while (running && high.isEmpty() && bulk.isEmpty()) {
+                    notEmpty.awaitUninterruptibly();
+                }
+                if (!running) {
+                    return null;
+                }
+                if (!high.isEmpty() && (bulk.isEmpty() || highStreak < highPriorityWeight)) {
+                    highStreak++;
+                    return high.poll();
+                }
+                highStreak = 0;
+                return bulk.poll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.mstrouthos.service;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * How often and how far apart a failed attempt is retried.
+ *
+ * @param maxAttempts Attempts in total, including the first one; 1 disables retries
+ * @param baseDelay Backoff before the second attempt, doubled for every further one
+ * @param maxDelay Upper bound of the backoff
+ */
+public record RetryPolicy(int maxAttempts, Duration baseDelay, Duration maxDelay) {
+
+    /**
+     * @param attempts Attempts made so far
+     * @return Whether another attempt is allowed
+     */
+    public boolean allowsRetry(int attempts) {
+        return attempts < maxAttempts;
+    }
+
+    /**
+     * Exponential backoff with jitter: a random delay between half and all of
+     * min(maxDelay, baseDelay * 2^(attempts - 1)), so retries of messages that failed together
+     * spread out instead of hitting the provider again at the same instant.
+     *
+     * @param attempts Attempts made so far
+     * @return Delay before the next attempt, in milliseconds
+     */
+    public long delayMillis(int attempts) {
+        long backoff = baseDelay.toMillis() << Math.min(Math.max(attempts - 1, 0), 20);
+        long ceiling = Math.max(Math.min(backoff, maxDelay.toMillis()), 1);
+        return ceiling / 2 + ThreadLocalRandom.current().nextLong(ceiling - ceiling / 2 + 1);
+    }
+}
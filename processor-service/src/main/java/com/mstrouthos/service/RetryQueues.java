@@ -0,0 +1,136 @@
+package com.mstrouthos.service;
+
+import io.quarkus.runtime.StartupEvent;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import io.vertx.rabbitmq.RabbitMQClient;
+import io.vertx.rabbitmq.RabbitMQOptions;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Broker-side delay queues for retries, one per {@code sms.retry.delay-tiers} entry.
+ *
+ * Tier queue sms-retry-wait-&lt;millis&gt; has no consumer and a fixed message TTL of its delay; expired
+ * messages are dead-lettered to the sms-retry exchange, where {@link SmsQueueConsumerService} receives
+ * them. All messages of a queue share its TTL, so they expire in arrival order and a long delay never
+ * holds up a short one. Queues are declared at startup, as the connector only declares queues it consumes.
+ */
+@ApplicationScoped
+public class RetryQueues {
+    private static final Logger LOG = Logger.getLogger(RetryQueues.class);
+
+    static final String EXCHANGE = "sms-retry-wait";
+    private static final String QUEUE_PREFIX = "sms-retry-wait-";
+    private static final String RETRY_EXCHANGE = "sms-retry";
+
+    @Inject
+    Vertx vertx;
+
+    @ConfigProperty(name = "rabbitmq-host", defaultValue = "localhost")
+    String host;
+
+    @ConfigProperty(name = "rabbitmq-port", defaultValue = "5672")
+    int port;
+
+    @ConfigProperty(name = "rabbitmq-username", defaultValue = "guest")
+    String username;
+
+    @ConfigProperty(name = "rabbitmq-password", defaultValue = "guest")
+    String password;
+
+    @ConfigProperty(name = "sms.retry.delay-tiers", defaultValue = "250ms,1s,5s,30s,2m,10m")
+    List<Duration> delayTiers;
+
+    @ConfigProperty(name = "sms.retry.topology-timeout", defaultValue = "10s")
+    Duration timeout;
+
+    // Tier delays in milliseconds, ascending
+    private long[] tiers;
+    private RabbitMQClient client;
+
+    @PostConstruct
+    void init() {
+        tiers = delayTiers.stream().mapToLong(Duration::toMillis).filter(tier -> tier > 0).sorted().distinct().toArray();
+        if (tiers.length == 0) {
+            throw new IllegalArgumentException("sms.retry.delay-tiers needs at least one positive delay");
+        }
+        client = RabbitMQClient.create(vertx, new RabbitMQOptions()
+            .setHost(host)
+            .setPort(port)
+            .setUser(username)
+            .setPassword(password));
+    }
+
+    /**
+     * Declares the sms-retry-wait exchange and a queue per tier, bound with its delay in milliseconds.
+     * Declaring is idempotent, but changing a tier's TTL needs its queue deleted first.
+     */
+    void declare(@Observes StartupEvent event) {
+        await(client.start());
+        await(client.exchangeDeclare(EXCHANGE, "direct", true, false));
+        // Same as the connector declares it for the sms-retry consumer, so either may come first
+        await(client.exchangeDeclare(RETRY_EXCHANGE, "topic", true, false));
+        for (long tier : tiers) {
+            String queue = QUEUE_PREFIX + tier;
+            await(client.queueDeclare(queue, true, false, false, new JsonObject()
+                .put("x-message-ttl", tier)
+                .put("x-dead-letter-exchange", RETRY_EXCHANGE)));
+            await(client.queueBind(queue, EXCHANGE, routingKey(tier)));
+        }
+        LOG.infof("Declared %d retry delay queues", tiers.length);
+    }
+
+    /**
+     * @return The shortest tier; retries due sooner than this wait in-process instead
+     */
+    public long shortestTier() {
+        return tiers[0];
+    }
+
+    /**
+     * @return Routing key of the longest tier not exceeding the delay, or of the shortest tier if the
+     *         delay is below it; a retry due later than its tier is passed on to the next one on arrival
+     */
+    public String tierFor(long delayMillis) {
+        long chosen = tiers[0];
+        for (long tier : tiers) {
+            if (tier <= delayMillis) {
+                chosen = tier;
+            }
+        }
+        return routingKey(chosen);
+    }
+
+    private static String routingKey(long tier) {
+        return String.valueOf(tier);
+    }
+
+    private <T> T await(Future<T> future) {
+        try {
+            return future.toCompletionStage().toCompletableFuture().get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while declaring retry queues", e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new IllegalStateException("Failed to declare retry queues: " + e.getMessage(), e);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        client.stop();
+    }
+}
@@ -0,0 +1,240 @@
+package com.mstrouthos.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.smallrye.reactive.messaging.annotations.OnOverflow;
+import io.smallrye.reactive.messaging.rabbitmq.IncomingRabbitMQMetadata;
+import io.smallrye.reactive.messaging.rabbitmq.OutgoingRabbitMQMetadata;
+import org.eclipse.microprofile.config.Config;
+import org.eclipse.microprofile.config.ConfigProvider;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.reactive.messaging.Channel;
+import org.eclipse.microprofile.reactive.messaging.Emitter;
+import org.eclipse.microprofile.reactive.messaging.Message;
+import org.eclipse.microprofile.reactive.messaging.Metadata;
+import org.jboss.logging.Logger;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Hands failed sends and callbacks to the sms-retry queue, or to the sms-dlq dead-letter queue once
+ * the {@link RetryPolicy} of their {@link FailureReason} is exhausted.
+ *
+ * Retries are published with the attempts made so far and the time they are due in headers, to the
+ * {@link RetryQueues} delay tier matching their backoff, which passes them on to sms-retry when it
+ * expires; {@link SmsQueueConsumerService} consumes them from there. The wait happens on the broker,
+ * so retries neither hold the slot of the incoming queue nor the sms-retry prefetch while backing off.
+ * Dead-lettered messages keep their payload and carry the reason and attempt count, so they can be
+ * inspected and shovelled back to sms-retry by hand.
+ */
+@ApplicationScoped
+public class RetryService {
+    private static final Logger LOG = Logger.getLogger(RetryService.class);
+
+    static final String KIND_HEADER = "sms-retry-kind";
+    static final String ATTEMPTS_HEADER = "sms-attempts";
+    static final String DUE_AT_HEADER = "sms-due-at";
+    static final String REASON_HEADER = "sms-failure-reason";
+
+    /**
+     * What is retried: sending the SMS (payload is the queued message) or delivering its status callback.
+     */
+    public enum Kind {
+        DISPATCH,
+        CALLBACK
+    }
+
+    /**
+     * A retry as received from sms-retry.
+     *
+     * @param attempts Attempts made before this one
+     * @param dueAt Epoch millis at which it should run
+     */
+    public record Retry(Kind kind, int attempts, long dueAt) {}
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @Inject
+    RetryQueues retryQueues;
+
+    @Inject
+    @Channel("sms-retry-out")
+    @OnOverflow(value = OnOverflow.Strategy.BUFFER, bufferSize = 1024)
+    Emitter<byte[]> retryEmitter;
+
+    @Inject
+    @Channel("sms-dead-letter")
+    @OnOverflow(value = OnOverflow.Strategy.BUFFER, bufferSize = 1024)
+    Emitter<byte[]> deadLetterEmitter;
+
+    @ConfigProperty(name = "sms.retry.max-attempts", defaultValue = "5")
+    int defaultMaxAttempts;
+
+    @ConfigProperty(name = "sms.retry.base-delay", defaultValue = "1s")
+    Duration defaultBaseDelay;
+
+    @ConfigProperty(name = "sms.retry.max-delay", defaultValue = "5m")
+    Duration defaultMaxDelay;
+
+    private final Map<FailureReason, RetryPolicy> policies = new EnumMap<>(FailureReason.class);
+    private final Map<Kind, Counter> retries = new EnumMap<>(Kind.class);
+    private final Map<Kind, Counter> deadLetters = new EnumMap<>(Kind.class);
+
+    @PostConstruct
+    void init() {
+        // Per-reason overrides of the defaults, e.g. sms.retry.network-timeout.max-attempts
+        Config config = ConfigProvider.getConfig();
+        for (FailureReason reason : FailureReason.values()) {
+            String prefix = "sms.retry." + reason.key() + ".";
+            RetryPolicy policy = new RetryPolicy(
+                config.getOptionalValue(prefix + "max-attempts", Integer.class)
+                    .orElse(reason.isTransient() ? defaultMaxAttempts : 1),
+                config.getOptionalValue(prefix + "base-delay", Duration.class).orElse(defaultBaseDelay),
+                config.getOptionalValue(prefix + "max-delay", Duration.class).orElse(defaultMaxDelay));
+            policies.put(reason, policy);
+            LOG.infof("Retry policy for %s: %s", reason.key(), policy);
+        }
+
+        for (Kind kind : Kind.values()) {
+            String tag = kind.name().toLowerCase();
+            retries.put(kind, Counter.builder("sms.retries")
+                .description("Failed attempts scheduled for a retry")
+                .tag("kind", tag)
+                .register(meterRegistry));
+            deadLetters.put(kind, Counter.builder("sms.dead.letters")
+                .description("Failed attempts moved to the dead-letter queue after their last retry")
+                .tag("kind", tag)
+                .register(meterRegistry));
+        }
+    }
+
+    /**
+     * Schedules another attempt after a failed one, or dead-letters the payload if its reason's
+     * policy allows no more.
+     *
+     * @param kind What failed
+     * @param payload Message or callback to retry, published as JSON
+     * @param id SMS message id, for logging
+     * @param attempts Attempts made so far, including the one that failed
+     * @param reason Why it failed
+     * @return Stage completed with true once the broker confirmed the retry, with false once it
+     *         confirmed the dead letter
+     */
+    public CompletionStage<Boolean> retryOrDeadLetter(Kind kind, Object payload, String id, int attempts,
+                                                      FailureReason reason) {
+        byte[] body;
+        try {
+            body = objectMapper.writeValueAsBytes(payload);
+        } catch (JsonProcessingException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        RetryPolicy policy = policies.get(reason);
+        OutgoingRabbitMQMetadata.Builder metadata = OutgoingRabbitMQMetadata.builder()
+            .withContentType("application/json")
+            .withHeader(KIND_HEADER, kind.name())
+            .withHeader(ATTEMPTS_HEADER, attempts)
+            .withHeader(REASON_HEADER, reason.message());
+
+        if (!policy.allowsRetry(attempts)) {
+            LOG.warnf("Dead-lettering %s of SMS %s after %d attempts: %s",
+                      kind, id, attempts, reason.message());
+            deadLetters.get(kind).increment();
+            return publish(deadLetterEmitter, body, metadata).thenApply(ignored -> false);
+        }
+
+        long delay = policy.delayMillis(attempts);
+        LOG.infof("Retrying %s of SMS %s in %d ms (attempt %d of %d): %s",
+                  kind, id, delay, attempts + 1, policy.maxAttempts(), reason.message());
+        retries.get(kind).increment();
+        metadata.withHeader(DUE_AT_HEADER, System.currentTimeMillis() + delay)
+            .withRoutingKey(retryQueues.tierFor(delay));
+        return publish(retryEmitter, body, metadata).thenApply(ignored -> true);
+    }
+
+    /**
+     * @param remainingMillis Time until a received retry is due
+     * @return Whether it should go back to a delay tier rather than wait in-process
+     */
+    public boolean shouldDefer(long remainingMillis) {
+        return remainingMillis >= retryQueues.shortestTier();
+    }
+
+    /**
+     * Sends a retry received before it was due back to the delay tier matching the time it has left,
+     * e.g. after a 2m tier for a 7m backoff. The payload and retry headers are kept as they are.
+     *
+     * @return Stage completed once the broker confirmed it; the received message can then be acked
+     */
+    public CompletionStage<Void> defer(Message<byte[]> message, long remainingMillis) {
+        Map<String, Object> headers = message.getMetadata(IncomingRabbitMQMetadata.class)
+            .map(IncomingRabbitMQMetadata::getHeaders)
+            .orElse(Map.of());
+        OutgoingRabbitMQMetadata.Builder metadata = OutgoingRabbitMQMetadata.builder()
+            .withContentType("application/json")
+            .withRoutingKey(retryQueues.tierFor(remainingMillis));
+        // Only the retry headers; x-death is maintained by the broker
+        for (String header : List.of(KIND_HEADER, ATTEMPTS_HEADER, DUE_AT_HEADER, REASON_HEADER)) {
+            Object value = headers.get(header);
+            if (value != null) {
+                metadata.withHeader(header, String.valueOf(value));
+            }
+        }
+        return publish(retryEmitter, message.getPayload(), metadata);
+    }
+
+    /**
+     * Reads the retry headers of a message received from sms-retry.
+     *
+     * @return The retry, or null if the headers are missing or malformed
+     */
+    public Retry retryOf(Message<byte[]> message) {
+        Map<String, Object> headers = message.getMetadata(IncomingRabbitMQMetadata.class)
+            .map(IncomingRabbitMQMetadata::getHeaders)
+            .orElse(Map.of());
+        Object kind = headers.get(KIND_HEADER);
+        Object attempts = headers.get(ATTEMPTS_HEADER);
+        Object dueAt = headers.get(DUE_AT_HEADER);
+        if (kind == null || attempts == null || dueAt == null) {
+            return null;
+        }
+        try {
+            // String headers may arrive as the client's LongString, numbers as Integer or Long
+            return new Retry(
+                Kind.valueOf(String.valueOf(kind)),
+                Integer.parseInt(String.valueOf(attempts)),
+                Long.parseLong(String.valueOf(dueAt)));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static CompletionStage<Void> publish(Emitter<byte[]> emitter, byte[] body,
+                                                 OutgoingRabbitMQMetadata.Builder metadata) {
+        CompletableFuture<Void> confirm = new CompletableFuture<>();
+        emitter.send(Message.of(body, Metadata.of(metadata.build()),
+            () -> {
+                confirm.complete(null);
+                return CompletableFuture.completedFuture(null);
+            },
+            reason -> {
+                confirm.completeExceptionally(reason);
+                return CompletableFuture.completedFuture(null);
+            }));
+        return confirm;
+    }
+}
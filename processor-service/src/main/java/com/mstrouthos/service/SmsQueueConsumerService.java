@@ -1,21 +1,33 @@
 package com.mstrouthos.service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.mstrouthos.client.SmsCallbackClient;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
 import com.mstrouthos.dto.SmsMessage;
 import com.mstrouthos.dto.SmsCallback;
-import io.vertx.core.json.JsonObject;
-import io.smallrye.reactive.messaging.annotations.Blocking;
+import com.mstrouthos.dto.SmsPriority;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.smallrye.reactive.messaging.rabbitmq.IncomingRabbitMQMetadata;
 import org.eclipse.microprofile.reactive.messaging.Incoming;
-import org.eclipse.microprofile.rest.client.inject.RestClient;
+import org.eclipse.microprofile.reactive.messaging.Message;
 import org.jboss.logging.Logger;
 
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
+import java.io.IOException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.EnumMap;
+import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 @ApplicationScoped
 public class SmsQueueConsumerService {
@@ -23,65 +35,299 @@ public class SmsQueueConsumerService {
     private static final Logger LOG = Logger.getLogger(SmsQueueConsumerService.class);
     private static final Random random = new Random();
     private static final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final String CBOR_CONTENT_TYPE = "application/cbor";
     
     @Inject
     ObjectMapper objectMapper;
 
-    // Error messages for failed deliveries
-    private static final String[] ERROR_MESSAGES = {
-        "Network timeout",
-        "SMS service unavailable",
-        "Rate limit exceeded",
-        "Invalid message format"
+    // Reasons for failed deliveries
+    private static final FailureReason[] PROVIDER_FAILURES = {
+        FailureReason.NETWORK_TIMEOUT,
+        FailureReason.SERVICE_UNAVAILABLE,
+        FailureReason.RATE_LIMITED,
+        FailureReason.INVALID_FORMAT
     };
     
     @Inject
-    @RestClient
-    SmsCallbackClient callbackClient;
+    CallbackDispatcher callbackDispatcher;
+
+    @Inject
+    RetryService retryService;
+    
+    @Inject
+    PartitionedExecutor partitionedExecutor;
+
+    @Inject
+    DestinationRateLimiter rateLimiter;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    private final Map<SmsPriority, Timer> dispatchLatency = new EnumMap<>(SmsPriority.class);
+
+    // Sends messages deferred by the rate limiter once their slot is due
+    private final ScheduledExecutorService deferrals = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "rate-limit-deferrals");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Holds retries received from sms-retry for the last part of their backoff, shorter than any delay tier
+    private final ScheduledExecutorService retryTimer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "sms-retry-timer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private ObjectReader jsonReader;
+    private ObjectReader callbackReader;
+    private ObjectReader cborReader;
+
+    @PostConstruct
+    void init() {
+        jsonReader = objectMapper.readerFor(SmsMessage.class);
+        callbackReader = objectMapper.readerFor(SmsCallback.class);
+        cborReader = CBORMapper.builder()
+            .addMixIn(SmsMessage.class, SmsMessage.CompactLayout.class)
+            .build()
+            .readerFor(SmsMessage.class);
+
+        for (SmsPriority priority : SmsPriority.values()) {
+            dispatchLatency.put(priority, Timer.builder("sms.dispatch.latency")
+                .description("Time from receiving an SMS message to sending it, including lane wait and rate limit deferral")
+                .tag("priority", priority.name().toLowerCase())
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry));
+        }
+    }
     
+    /**
+     * Receives a bulk SMS message from sms-queue.
+     */
     @Incoming("sms-queue")
-    @Blocking
-    public CompletionStage<Void> processSmsMessage(JsonObject message) {
-        LOG.infof("Process SMS message start");
-        SmsMessage smsMessage = objectMapper.convertValue(message.getMap(), SmsMessage.class);
-        LOG.infof("Processing SMS message: %s", smsMessage.id);
+    public CompletionStage<Void> processSmsMessage(Message<byte[]> message) {
+        return receive(message, SmsPriority.BULK);
+    }
+
+    /**
+     * Receives a bulk SMS message from the shard queue claimed by this instance.
+     * The queue is declared single-active-consumer, so other instances claiming the same shard stand
+     * by and take over on failure; messages to one phone number are never processed on two nodes at once.
+     */
+    @Incoming("sms-shard")
+    public CompletionStage<Void> processShardSmsMessage(Message<byte[]> message) {
+        return receive(message, SmsPriority.BULK);
+    }
+
+    /**
+     * Receives a high priority SMS message from sms-queue-priority.
+     */
+    @Incoming("sms-queue-priority")
+    public CompletionStage<Void> processPrioritySmsMessage(Message<byte[]> message) {
+        return receive(message, SmsPriority.HIGH);
+    }
+
+    /**
+     * Receives a failed send or callback from sms-retry, where its delay tier passes it on, and runs
+     * it again once due. A retry with at least the shortest tier left goes back to a tier; the rest of
+     * the backoff, shorter than that, is waited out on a timer rather than a lane. Either way a retry
+     * only takes a sms-retry prefetch slot for a moment while waiting, so long backoffs cannot hold up
+     * short ones, and the prefetch bounds how many retries run at once: a retry storm cannot take the
+     * delivery slots or lanes of fresh traffic beyond that. Retried sends join their phone number's
+     * lane as bulk work.
+     */
+    @Incoming("sms-retry")
+    public CompletionStage<Void> processRetry(Message<byte[]> message) {
+        RetryService.Retry retry = retryService.retryOf(message);
+        if (retry == null) {
+            LOG.warn("Dropping retry without retry headers");
+            return message.ack();
+        }
+
+        long delay = Math.max(retry.dueAt() - System.currentTimeMillis(), 0);
+        if (retryService.shouldDefer(delay)) {
+            retryService.defer(message, delay).whenComplete((ignored, failure) -> {
+                if (failure == null) {
+                    message.ack();
+                } else {
+                    LOG.warnf("Could not defer retry, requeueing: %s", failure.getMessage());
+                    message.nack(failure);
+                }
+            });
+            return CompletableFuture.completedFuture(null);
+        }
+        retryTimer.schedule(() -> runRetry(retry, message), delay, TimeUnit.MILLISECONDS);
+        return CompletableFuture.completedFuture(null);
+    }
+
+    private void runRetry(RetryService.Retry retry, Message<byte[]> message) {
+        int attempt = retry.attempts() + 1;
+        try {
+            if (retry.kind() == RetryService.Kind.CALLBACK) {
+                SmsCallback callback = callbackReader.readValue(message.getPayload());
+                report(callback, message, attempt);
+            } else {
+                SmsMessage smsMessage = jsonReader.readValue(message.getPayload());
+                long receivedAt = System.nanoTime();
+                partitionedExecutor.execute(smsMessage.phoneNumber(), SmsPriority.BULK,
+                    () -> process(smsMessage, message, SmsPriority.BULK, receivedAt, attempt));
+            }
+        } catch (IOException e) {
+            LOG.warnf("Dropping malformed retry: %s", e.getMessage());
+            message.ack();
+        }
+    }
+
+    /**
+     * Hands a queued SMS message to the processing lane of its phone number.
+     * Messages to the same phone number are processed one after another in queue order,
+     * messages to different numbers are processed in parallel, and lanes favour high priority
+     * messages over bulk ones. The number of messages in flight is bounded per queue by the
+     * channel's max-outstanding-messages (RabbitMQ prefetch).
+     *
+     * The payload arrives as raw bytes (content-type-override) and is bound straight to
+     * {@link SmsMessage}, without building an intermediate JsonObject. It is decoded as CBOR
+     * when published with content-type application/cbor and as JSON otherwise.
+     */
+    private CompletionStage<Void> receive(Message<byte[]> message, SmsPriority priority) {
+        long receivedAt = System.nanoTime();
+        SmsMessage smsMessage;
+        try {
+            smsMessage = readerFor(message).readValue(message.getPayload());
+        } catch (IOException e) {
+            // Redelivering a payload that cannot be parsed would fail again, so drop it
+            LOG.warnf("Dropping malformed SMS message: %s", e.getMessage());
+            return message.ack();
+        }
+
+        partitionedExecutor.execute(smsMessage.phoneNumber(), priority,
+            () -> process(smsMessage, message, priority, receivedAt, 1));
+        return CompletableFuture.completedFuture(null);
+    }
+
+    private ObjectReader readerFor(Message<byte[]> message) {
+        boolean cbor = message.getMetadata(IncomingRabbitMQMetadata.class)
+            .flatMap(IncomingRabbitMQMetadata::getContentType)
+            .filter(CBOR_CONTENT_TYPE::equalsIgnoreCase)
+            .isPresent();
+        return cbor ? cborReader : jsonReader;
+    }
+
+    /**
+     * Reserves a send slot for the message's destination and sends it right away or, when the
+     * destination is over its rate limit, defers it until the slot is due. Deferred messages stay
+     * unacknowledged, so the prefetch limit bounds how many can pile up. Later messages to the same
+     * number reserve later slots, which keeps them in order.
+     */
+    private void process(SmsMessage smsMessage, Message<byte[]> message, SmsPriority priority, long receivedAt,
+                         int attempt) {
+        long delay = rateLimiter.reserve(smsMessage.phoneNumber());
+        if (delay > 0) {
+            LOG.debugf("Deferring SMS message %s by %d ms", smsMessage.id(), TimeUnit.NANOSECONDS.toMillis(delay));
+            deferrals.schedule(() -> send(smsMessage, message, priority, receivedAt, attempt),
+                               delay, TimeUnit.NANOSECONDS);
+        } else {
+            send(smsMessage, message, priority, receivedAt, attempt);
+        }
+    }
+
+    /**
+     * Sends a queued SMS message and reports its outcome to sms-service.
+     * A failed send is handed to the retry queue while its reason's policy allows another attempt,
+     * and only reported as failed (and dead-lettered) after the last one. The queue message is
+     * acknowledged once the retry was queued or the callback was delivered.
+     *
+     * @param attempt Number of this attempt, 1 for a message fresh from the queue
+     */
+    private void send(SmsMessage smsMessage, Message<byte[]> message, SmsPriority priority, long receivedAt,
+                      int attempt) {
+        LOG.infof("Processing SMS message: %s (attempt %d)", smsMessage.id(), attempt);
+        dispatchLatency.get(priority).record(System.nanoTime() - receivedAt, TimeUnit.NANOSECONDS);
         
         boolean isDelivered = random.nextDouble() < 0.85;
-        
-        SmsCallback callback = createCallback(smsMessage, isDelivered);
-        
-        LOG.infof("Sending callback for SMS %s with status: %s", smsMessage.id, callback.status);
-        
-        return callbackClient.sendCallback(callback)
-            .thenAccept(response -> {
-                if (response.getStatus() >= 200 && response.getStatus() < 300) {
-                    LOG.infof("Successfully sent callback for SMS %s", smsMessage.id);
+        if (isDelivered) {
+            report(createCallback(smsMessage, null), message, 1);
+            return;
+        }
+
+        FailureReason reason = getRandomFailureReason();
+        retryService.retryOrDeadLetter(RetryService.Kind.DISPATCH, smsMessage, smsMessage.id(), attempt, reason)
+            .whenComplete((retried, failure) -> {
+                if (failure != null) {
+                    // The retry could not be queued, let the broker redeliver the message instead
+                    LOG.errorf("Error queueing retry for SMS %s: %s", smsMessage.id(), failure.getMessage());
+                    message.nack(failure);
+                } else if (retried) {
+                    message.ack();
                 } else {
-                    LOG.errorf("Failed to send callback for SMS %s. Status: %d", 
-                              smsMessage.id, response.getStatus());
+                    report(createCallback(smsMessage, reason), message, 1);
+                }
+            });
+    }
+
+    /**
+     * Delivers a status callback, handing it to the retry queue if that fails, and acknowledges the
+     * message it reports on once either succeeded. The message is nacked (and redelivered) if the
+     * callback could not even be handed to its transport.
+     *
+     * @param attempt Number of this delivery attempt
+     */
+    private void report(SmsCallback callback, Message<byte[]> message, int attempt) {
+        LOG.infof("Sending callback for SMS %s with status: %s", callback.id, callback.status);
+
+        CompletionStage<Void> dispatched;
+        try {
+            dispatched = callbackDispatcher.dispatch(callback);
+        } catch (RuntimeException e) {
+            // E.g. the sms-status emitter's buffer is full; let the broker redeliver the message
+            LOG.errorf("Error dispatching callback for SMS %s: %s", callback.id, e.getMessage());
+            message.nack(e);
+            return;
+        }
+
+        dispatched
+            .handle((ignored, failure) -> failure)
+            .thenCompose(failure -> {
+                if (failure == null) {
+                    return CompletableFuture.completedFuture(true);
                 }
+                LOG.errorf("Error sending callback for SMS %s: %s", callback.id, failure.getMessage());
+                return retryService.retryOrDeadLetter(
+                    RetryService.Kind.CALLBACK, callback, callback.id, attempt, FailureReason.CALLBACK_FAILED);
             })
-            .exceptionally(throwable -> {
-                LOG.errorf("Error sending callback for SMS %s: %s", 
-                          smsMessage.id, throwable.getMessage());
-                return null;
+            .whenComplete((ignored, failure) -> {
+                if (failure != null) {
+                    LOG.errorf("Error queueing callback retry for SMS %s: %s", callback.id, failure.getMessage());
+                    message.nack(failure);
+                } else {
+                    message.ack();
+                }
             });
     }
-    
-    private SmsCallback createCallback(SmsMessage smsMessage, boolean isDelivered) {
+
+    private SmsCallback createCallback(SmsMessage smsMessage, FailureReason failure) {
+        boolean isDelivered = failure == null;
         String status = isDelivered ? "delivered" : "failed";
-        String errorMessage = isDelivered ? null : getRandomErrorMessage();
+        String errorMessage = isDelivered ? null : failure.message();
         String deliveredAt = isDelivered ? LocalDateTime.now().format(formatter) : null;
         
-        return new SmsCallback(
-            smsMessage.id,
+        SmsCallback callback = new SmsCallback(
+            smsMessage.id(),
             status,
             errorMessage,
             deliveredAt
         );
+        callback.createdAt = smsMessage.createdAt();
+        return callback;
     }
     
-    private String getRandomErrorMessage() {
-        return ERROR_MESSAGES[random.nextInt(ERROR_MESSAGES.length)];
+    private FailureReason getRandomFailureReason() {
+        return PROVIDER_FAILURES[random.nextInt(PROVIDER_FAILURES.length)];
+    }
+
+    @PreDestroy
+    void shutdown() {
+        deferrals.shutdown();
+        retryTimer.shutdown();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,32 @@
+package com.mstrouthos.service;
+
+import com.mstrouthos.dto.SmsCallback;
+import io.smallrye.reactive.messaging.annotations.OnOverflow;
+import org.eclipse.microprofile.reactive.messaging.Channel;
+import org.eclipse.microprofile.reactive.messaging.Emitter;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Publishes status callbacks as events to the sms-status channel, consumed in batches by sms-service.
+ */
+@ApplicationScoped
+public class StatusEventPublisher {
+
+    @Inject
+    @Channel("sms-status")
+    @OnOverflow(value = OnOverflow.Strategy.BUFFER, bufferSize = 1024)
+    Emitter<SmsCallback> statusEmitter;
+
+    /**
+     * Publishes a status event.
+     *
+     * @return Stage completed once the broker confirmed the event
+     * @throws IllegalStateException if the emitter's buffer is full
+     */
+    public CompletionStage<Void> publish(SmsCallback callback) {
+        return statusEmitter.send(callback);
+    }
+}
@@ -0,0 +1,55 @@
+package com.mstrouthos.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Per-item outcome of a bulk send request.
+ * Indexes refer to the position of the message in the submitted array,
+ * so clients can resubmit only the rejected entries.
+ */
+public class SmsBatchResult {
+    @JsonProperty("accepted")
+    public List<Accepted> accepted = new ArrayList<>();
+
+    @JsonProperty("rejected")
+    public List<Rejected> rejected = new ArrayList<>();
+
+    public SmsBatchResult() {}
+
+    public static class Accepted {
+        @JsonProperty("index")
+        public int index;
+
+        @JsonProperty("id")
+        public Long id;
+
+        public Accepted() {}
+
+        public Accepted(int index, Long id) {
+            this.index = index;
+            this.id = id;
+        }
+    }
+
+    public static class Rejected {
+        @JsonProperty("index")
+        public int index;
+
+        @JsonProperty("error")
+        public String error;
+
+        @JsonProperty("details")
+        public List<String> details;
+
+        public Rejected() {}
+
+        public Rejected(int index, String error, List<String> details) {
+            this.index = index;
+            this.error = error;
+            this.details = details;
+        }
+    }
+}
\ No newline at end of file
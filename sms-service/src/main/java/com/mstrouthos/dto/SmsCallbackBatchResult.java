@@ -0,0 +1,23 @@
+package com.mstrouthos.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a bulk status callback. Valid entries are applied even if others are rejected;
+ * indexes of rejected entries refer to their position in the submitted array.
+ */
+public class SmsCallbackBatchResult {
+    @JsonProperty("received")
+    public int received;
+
+    @JsonProperty("updated")
+    public int updated;
+
+    @JsonProperty("rejected")
+    public List<SmsBatchResult.Rejected> rejected = new ArrayList<>();
+
+    public SmsCallbackBatchResult() {}
+}
@@ -1,5 +1,6 @@
 package com.mstrouthos.dto;
 
+import com.fasterxml.jackson.annotation.JsonFormat;
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
@@ -7,7 +8,8 @@ import java.time.LocalDateTime;
 @Table(name = "sms_messages")
 public class SmsMessage {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sms_messages_seq")
+    @SequenceGenerator(name = "sms_messages_seq", sequenceName = "sms_messages_seq", allocationSize = 100)
     public Long id;
 
     @Column(name = "phone_number", nullable = false)
@@ -16,18 +18,34 @@ public class SmsMessage {
     @Column(name = "message", nullable = false)
     public String text;
 
-    @Column(name = "created_at")
+    @Column(name = "created_at", nullable = false)
     public LocalDateTime createdAt;
 
+    /** One of {@link SmsStatus}, stored by name */
     @Column(name = "status")
     public String status;
 
+    @Column(name = "error_message")
+    public String errorMessage;
+
+    @Column(name = "delivered_at")
+    public LocalDateTime deliveredAt;
+
+    /** Requested send time; the message is held back until then. Null or past: send now */
+    @Column(name = "send_at")
+    public LocalDateTime sendAt;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "priority", nullable = false, length = 8)
+    @JsonFormat(with = JsonFormat.Feature.ACCEPT_CASE_INSENSITIVE_VALUES)
+    public SmsPriority priority;
+
     public SmsMessage() {}
 
     public SmsMessage(String phoneNumber, String text) {
         this.phoneNumber = phoneNumber;
         this.text = text;
         this.createdAt = LocalDateTime.now();
-        this.status = "QUEUED";
+        this.status = SmsStatus.QUEUED.name();
     }
 }
\ No newline at end of file
@@ -0,0 +1,26 @@
+package com.mstrouthos.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.time.LocalDateTime;
+
+/**
+ * One entry of a message's lifecycle history.
+ */
+public class SmsMessageEvent {
+    @JsonProperty("event")
+    public String event;
+
+    @JsonProperty("occurred_at")
+    public LocalDateTime occurredAt;
+
+    @JsonProperty("error_message")
+    public String errorMessage;
+
+    public SmsMessageEvent() {}
+
+    public SmsMessageEvent(String event, LocalDateTime occurredAt, String errorMessage) {
+        this.event = event;
+        this.occurredAt = occurredAt;
+        this.errorMessage = errorMessage;
+    }
+}
@@ -0,0 +1,23 @@
+package com.mstrouthos.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Optional filters for querying SMS messages.
+ * Null fields are not applied; the time range is inclusive of {@code from} and exclusive of {@code to}.
+ */
+public class SmsMessageFilter {
+    public String status;
+    public String phoneNumber;
+    public LocalDateTime from;
+    public LocalDateTime to;
+
+    public SmsMessageFilter() {}
+
+    public SmsMessageFilter(String status, String phoneNumber, LocalDateTime from, LocalDateTime to) {
+        this.status = status;
+        this.phoneNumber = phoneNumber;
+        this.from = from;
+        this.to = to;
+    }
+}
@@ -0,0 +1,24 @@
+package com.mstrouthos.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+/**
+ * One page of SMS messages, newest first.
+ * {@code nextCursor} is an opaque token for the following page and is null on the last page.
+ */
+public class SmsMessagePage {
+    @JsonProperty("items")
+    public List<SmsMessage> items;
+
+    @JsonProperty("next_cursor")
+    public String nextCursor;
+
+    public SmsMessagePage() {}
+
+    public SmsMessagePage(List<SmsMessage> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+}
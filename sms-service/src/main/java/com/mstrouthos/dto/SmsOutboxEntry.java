@@ -0,0 +1,31 @@
+package com.mstrouthos.dto;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "sms_outbox")
+public class SmsOutboxEntry {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sms_outbox_seq")
+    @SequenceGenerator(name = "sms_outbox_seq", sequenceName = "sms_outbox_seq", allocationSize = 100)
+    public Long id;
+
+    @Column(name = "message_id", nullable = false)
+    public Long messageId;
+
+    @Column(name = "created_at", nullable = false)
+    public LocalDateTime createdAt;
+
+    @Enumerated(EnumType.ORDINAL)
+    @Column(name = "priority", nullable = false)
+    public SmsPriority priority;
+
+    public SmsOutboxEntry() {}
+
+    public SmsOutboxEntry(Long messageId, LocalDateTime createdAt, SmsPriority priority) {
+        this.messageId = messageId;
+        this.createdAt = createdAt;
+        this.priority = priority;
+    }
+}
@@ -0,0 +1,12 @@
+package com.mstrouthos.dto;
+
+/**
+ * Delivery class of an SMS message. Declaration order is significant: outbox entries store the
+ * ordinal and are relayed in ascending order, so HIGH must stay first.
+ */
+public enum SmsPriority {
+    /** OTP and other transactional messages, published on sms-queue-priority */
+    HIGH,
+    /** Campaigns and other bulk traffic, published on sms-queue */
+    BULK
+}
@@ -0,0 +1,32 @@
+package com.mstrouthos.dto;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "sms_scheduled")
+public class SmsScheduledEntry {
+    @Id
+    @Column(name = "message_id")
+    public Long messageId;
+
+    @Column(name = "send_at", nullable = false)
+    public LocalDateTime sendAt;
+
+    /** Creation time of the message, carried over to its outbox entry */
+    @Column(name = "created_at", nullable = false)
+    public LocalDateTime createdAt;
+
+    @Enumerated(EnumType.ORDINAL)
+    @Column(name = "priority", nullable = false)
+    public SmsPriority priority;
+
+    public SmsScheduledEntry() {}
+
+    public SmsScheduledEntry(Long messageId, LocalDateTime sendAt, LocalDateTime createdAt, SmsPriority priority) {
+        this.messageId = messageId;
+        this.sendAt = sendAt;
+        this.createdAt = createdAt;
+        this.priority = priority;
+    }
+}
@@ -0,0 +1,52 @@
+package com.mstrouthos.dto;
+
+import java.util.Locale;
+
+/**
+ * Delivery status of an SMS message.
+ *
+ * Statuses only move forward: a message can change to a status of higher rank, never to one of
+ * equal or lower rank. Final statuses share the highest rank, so DELIVERED and FAILED never
+ * overwrite each other and late or repeated callbacks have no effect.
+ */
+public enum SmsStatus {
+    QUEUED(0),
+    SENT(1),
+    DELIVERED(2),
+    FAILED(2);
+
+    private final int rank;
+
+    SmsStatus(int rank) {
+        this.rank = rank;
+    }
+
+    public int getRank() {
+        return rank;
+    }
+
+    public boolean canTransitionTo(SmsStatus next) {
+        return next.rank > rank;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the value is not a known status
+     */
+    public static SmsStatus parse(String value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Missing status");
+        }
+        return valueOf(value.toUpperCase(Locale.ROOT));
+    }
+
+    /**
+     * SQL expression for the rank of the status stored in the given column; unknown values rank -1.
+     */
+    public static String rankSql(String column) {
+        StringBuilder sql = new StringBuilder("(CASE ").append(column);
+        for (SmsStatus status : values()) {
+            sql.append(" WHEN '").append(status.name()).append("' THEN ").append(status.rank);
+        }
+        return sql.append(" ELSE -1 END)").toString();
+    }
+}
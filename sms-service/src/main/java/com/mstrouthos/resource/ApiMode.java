@@ -0,0 +1,11 @@
+package com.mstrouthos.resource;
+
+/**
+ * Implementation serving /api/sms/send and /api/sms/callback, selected by {@code sms.api.mode}.
+ */
+public enum ApiMode {
+    /** JDBC and Hibernate on virtual threads ({@link ApiResource}) */
+    BLOCKING,
+    /** Reactive Postgres client on the event loop ({@link ReactiveApiResource}) */
+    REACTIVE
+}
@@ -0,0 +1,34 @@
+package com.mstrouthos.resource;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.resteasy.reactive.server.ServerRequestFilter;
+
+import jakarta.ws.rs.container.ContainerRequestContext;
+import java.util.Set;
+
+/**
+ * Routes /api/sms/send and /api/sms/callback to {@link ReactiveApiResource} when
+ * {@code sms.api.mode} is reactive. The reactive endpoints stay reachable under /api/sms/reactive
+ * in either mode, so both paths can be compared against the same instance.
+ */
+public class ApiModeFilter {
+
+    private static final Set<String> REACTIVE_PATHS = Set.of("/api/sms/send", "/api/sms/callback");
+
+    @ConfigProperty(name = "sms.api.mode", defaultValue = "blocking")
+    ApiMode apiMode;
+
+    @ServerRequestFilter(preMatching = true)
+    public void selectImplementation(ContainerRequestContext requestContext) {
+        if (apiMode != ApiMode.REACTIVE) {
+            return;
+        }
+
+        String path = requestContext.getUriInfo().getPath();
+        if (REACTIVE_PATHS.contains(path)) {
+            requestContext.setRequestUri(requestContext.getUriInfo().getRequestUriBuilder()
+                .replacePath(path.replace("/api/sms/", "/api/sms/reactive/"))
+                .build());
+        }
+    }
+}
@@ -1,17 +1,39 @@
 package com.mstrouthos.resource;
 
+import com.mstrouthos.dto.SmsBatchResult;
+import com.mstrouthos.dto.SmsCallbackBatchResult;
 import com.mstrouthos.dto.SmsMessage;
+import com.mstrouthos.dto.SmsMessageEvent;
+import com.mstrouthos.dto.SmsMessageFilter;
+import com.mstrouthos.dto.SmsMessagePage;
 import com.mstrouthos.dto.SmsCallback;
+import com.mstrouthos.dto.SmsPriority;
+import com.mstrouthos.dto.SmsScheduledEntry;
+import com.mstrouthos.dto.SmsStatus;
+import com.mstrouthos.service.AdmissionController;
+import com.mstrouthos.service.ExportFormat;
+import com.mstrouthos.service.IdempotencyService;
+import com.mstrouthos.service.MessageCursor;
+import com.mstrouthos.service.SmsBatchService;
+import com.mstrouthos.service.SmsEventLog;
+import com.mstrouthos.service.SmsExportService;
+import com.mstrouthos.service.SmsMessageCache;
+import com.mstrouthos.service.SmsMessageQueryService;
+import com.mstrouthos.service.SmsScheduler;
+import com.mstrouthos.service.SmsStatusService;
+import com.mstrouthos.service.StatusUpdate;
 import com.mstrouthos.validation.SmsValidator;
 import com.mstrouthos.validation.ValidationResult;
-import org.eclipse.microprofile.reactive.messaging.Channel;
-import org.eclipse.microprofile.reactive.messaging.Emitter;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import io.smallrye.common.annotation.RunOnVirtualThread;
+import io.vertx.core.http.HttpServerRequest;
 import org.jboss.logging.Logger;
 import org.eclipse.microprofile.openapi.annotations.OpenAPIDefinition;
 import org.eclipse.microprofile.openapi.annotations.info.Info;
 import org.eclipse.microprofile.openapi.annotations.info.Contact;
 import org.eclipse.microprofile.openapi.annotations.Operation;
 import org.eclipse.microprofile.openapi.annotations.media.Content;
+import org.eclipse.microprofile.openapi.annotations.enums.SchemaType;
 import org.eclipse.microprofile.openapi.annotations.media.Schema;
 import org.eclipse.microprofile.openapi.annotations.responses.APIResponse;
 import org.eclipse.microprofile.openapi.annotations.tags.Tag;
@@ -21,9 +43,13 @@ import jakarta.inject.Inject;
 import jakarta.persistence.EntityManager;
 import jakarta.transaction.Transactional;
 import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.Context;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
-import java.util.regex.Pattern;
+import jakarta.ws.rs.core.StreamingOutput;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
 import java.util.List;
 
 @OpenAPIDefinition(
@@ -43,11 +69,8 @@ import java.util.List;
 @Tag(name = "SMS", description = "SMS messaging operations")
 public class ApiResource {
     private static final Logger LOG = Logger.getLogger(ApiResource.class);
-    private static final Pattern PHONE_PATTERN = Pattern.compile("^\\+?[1-9]\\d{1,14}$");
-
-    @Inject
-    @Channel("sms-queue")
-    Emitter<SmsMessage> smsEmitter;
+    private static final int MAX_PAGE_SIZE = 500;
+    static final String QUEUED_RESPONSE = "{\"status\":\"queued\",\"message\":\"SMS queued for delivery\"}";
 
     @Inject
     EntityManager entityManager;
@@ -55,12 +78,46 @@ public class ApiResource {
     @Inject
     SmsValidator smsValidator;
 
+    @Inject
+    SmsBatchService smsBatchService;
+
+    @Inject
+    SmsMessageQueryService smsMessageQueryService;
+
+    @Inject
+    SmsExportService smsExportService;
+
+    @Inject
+    SmsStatusService smsStatusService;
+
+    @Inject
+    AdmissionController admissionController;
+
+    @Inject
+    IdempotencyService idempotencyService;
+
+    @Inject
+    SmsMessageCache smsMessageCache;
+
+    @Inject
+    SmsEventLog smsEventLog;
+
+    @Inject
+    SmsScheduler smsScheduler;
+
+    @ConfigProperty(name = "sms.batch.max-size", defaultValue = "10000")
+    int maxBatchSize;
+
     /**
-     * Sends an SMS message by validating the request, persisting it to the database,
-     * and queuing it for delivery via RabbitMQ
+     * Sends an SMS message by validating the request and persisting it to the database
+     * together with an outbox entry, from which it is relayed to RabbitMQ for delivery.
+     * A request repeating the Idempotency-Key of an earlier one gets the original response
+     * and creates no new message. A message with a future sendAt is stored right away and
+     * queued when it is due.
      */
     @POST
     @Path("/send")
+    @RunOnVirtualThread
     @Transactional
     @Operation(
         summary = "Send SMS message",
@@ -82,6 +139,14 @@ public class ApiResource {
             schema = @Schema(example = "{\"error\":\"Validation failed\",\"details\":{}}")
         )
     )
+    @APIResponse(
+        responseCode = "429",
+        description = "Client quota exhausted or service overloaded, see Retry-After",
+        content = @Content(
+            mediaType = MediaType.APPLICATION_JSON,
+            schema = @Schema(example = "{\"error\":\"Rate limit exceeded\"}")
+        )
+    )
     @APIResponse(
         responseCode = "500",
         description = "Internal server error",
@@ -92,10 +157,32 @@ public class ApiResource {
     )
     public Response sendSms(
         @Parameter(description = "SMS message details", required = true)
-        SmsMessage smsMessage
+        SmsMessage smsMessage,
+        @Parameter(description = "API key identifying the client for quota purposes")
+        @HeaderParam("X-API-Key") String apiKey,
+        @Parameter(description = "Client chosen unique key (e.g. a UUID) that makes retries of this request safe")
+        @HeaderParam("Idempotency-Key") String idempotencyKey,
+        @Context HttpServerRequest request
     ) {
         LOG.infof("Received SMS request for phone: %s", smsMessage.phoneNumber);  
 
+        if (idempotencyKey != null) {
+            if (idempotencyKey.isBlank() || idempotencyKey.length() > IdempotencyService.MAX_KEY_LENGTH) {
+                return Response.status(400)
+                    .entity(String.format("{\"error\":\"Idempotency-Key must be 1 to %d characters\"}",
+                            IdempotencyService.MAX_KEY_LENGTH))
+                    .build();
+            }
+            if (idempotencyService.findMessageId(idempotencyKey) != null) {
+                return replayQueued(idempotencyKey);
+            }
+        }
+
+        AdmissionController.Admission admission = admissionController.admit(clientKey(apiKey, request), 1);
+        if (!admission.admitted()) {
+            return tooManyRequests(admission);
+        }
+
         ValidationResult validation = smsValidator.validateSmsRequest(smsMessage);
         if (!validation.isValid()) {
             LOG.warnf("SMS validation failed: %s", validation.getErrorMessage());
@@ -105,17 +192,34 @@ public class ApiResource {
                 .build();
         }
 
+        // Stored and routed in E.164 form, so every spelling of a number shares one shard and lane
+        smsMessage.phoneNumber = smsValidator.normalizePhoneNumber(smsMessage.phoneNumber);
+
         try {
             smsMessage.createdAt = java.time.LocalDateTime.now();
-            smsMessage.status = "QUEUED";
+            smsMessage.status = SmsStatus.QUEUED.name();
+            if (smsMessage.priority == null) {
+                smsMessage.priority = SmsPriority.BULK;
+            }
 
             entityManager.persist(smsMessage);
+            SmsScheduledEntry schedule = smsScheduler.enqueue(smsMessage);
+            if (schedule != null) {
+                smsScheduler.scheduleOnCommit(List.of(schedule));
+            }
+            smsEventLog.recordOnCommit(List.of(
+                new SmsEventLog.Event(smsMessage.id, SmsEventLog.QUEUED, smsMessage.createdAt, null)));
+
+            if (idempotencyKey != null
+                    && !idempotencyService.claim(idempotencyKey, smsMessage.id, smsMessage.createdAt)) {
+                // A concurrent request with the same key won; this transaction is rolled back
+                return replayQueued(idempotencyKey);
+            }
 
-            smsEmitter.send(smsMessage);
             LOG.infof("SMS message queued successfully for: %s", smsMessage.phoneNumber);
 
             return Response.ok()
-                .entity("{\"status\":\"queued\",\"message\":\"SMS queued for delivery\"}")
+                .entity(QUEUED_RESPONSE)
                 .build();
         } catch (Exception e) {
             LOG.error("Failed to queue SMS message", e);
@@ -127,20 +231,135 @@ public class ApiResource {
     }
 
     /**
-     * Retrieves all SMS messages from the database for the current user.
+     * Sends many SMS messages in one request. Every entry is validated individually;
+     * valid entries are persisted with JDBC batch inserts and queued in batches,
+     * invalid entries are reported back by their index in the request.
+     */
+    @POST
+    @Path("/send/batch")
+    @RunOnVirtualThread
+    @Operation(
+        summary = "Send SMS messages in bulk",
+        description = "Validates and queues a list of SMS messages, reporting accepted and rejected entries by index"
+    )
+    @APIResponse(
+        responseCode = "200",
+        description = "Batch processed, see accepted and rejected entries",
+        content = @Content(
+            mediaType = MediaType.APPLICATION_JSON,
+            schema = @Schema(implementation = SmsBatchResult.class)
+        )
+    )
+    @APIResponse(
+        responseCode = "400",
+        description = "Empty or oversized batch",
+        content = @Content(
+            mediaType = MediaType.APPLICATION_JSON,
+            schema = @Schema(example = "{\"error\":\"Batch must contain between 1 and 10000 messages\"}")
+        )
+    )
+    @APIResponse(
+        responseCode = "429",
+        description = "Client quota exhausted or service overloaded, see Retry-After",
+        content = @Content(
+            mediaType = MediaType.APPLICATION_JSON,
+            schema = @Schema(example = "{\"error\":\"Rate limit exceeded\"}")
+        )
+    )
+    @APIResponse(
+        responseCode = "500",
+        description = "Internal server error",
+        content = @Content(
+            mediaType = MediaType.APPLICATION_JSON,
+            schema = @Schema(example = "{\"error\":\"Failed to queue messages\"}")
+        )
+    )
+    public Response sendSmsBatch(
+        @Parameter(description = "SMS messages to send", required = true)
+        List<SmsMessage> smsMessages,
+        @Parameter(description = "API key identifying the client for quota purposes")
+        @HeaderParam("X-API-Key") String apiKey,
+        @Context HttpServerRequest request
+    ) {
+        if (smsMessages == null || smsMessages.isEmpty() || smsMessages.size() > maxBatchSize) {
+            return Response.status(400)
+                .entity(String.format("{\"error\":\"Batch must contain between 1 and %d messages\"}", maxBatchSize))
+                .build();
+        }
+
+        AdmissionController.Admission admission =
+            admissionController.admit(clientKey(apiKey, request), smsMessages.size());
+        if (!admission.admitted()) {
+            return tooManyRequests(admission);
+        }
+
+        LOG.infof("Received SMS batch request with %d messages", smsMessages.size());
+
+        SmsBatchResult result = new SmsBatchResult();
+        List<SmsMessage> valid = new ArrayList<>(smsMessages.size());
+        List<Integer> validIndexes = new ArrayList<>(smsMessages.size());
+
+        for (int i = 0; i < smsMessages.size(); i++) {
+            SmsMessage smsMessage = smsMessages.get(i);
+            ValidationResult validation = smsValidator.validateSmsRequest(smsMessage);
+            if (validation.isValid()) {
+                smsMessage.phoneNumber = smsValidator.normalizePhoneNumber(smsMessage.phoneNumber);
+                valid.add(smsMessage);
+                validIndexes.add(i);
+            } else {
+                result.rejected.add(new SmsBatchResult.Rejected(
+                    i, validation.getErrorMessage(), validation.getErrorDetails()));
+            }
+        }
+
+        if (!valid.isEmpty()) {
+            try {
+                smsBatchService.persistAndQueue(valid);
+            } catch (Exception e) {
+                LOG.error("Failed to queue SMS batch", e);
+
+                return Response.status(500)
+                    .entity("{\"error\":\"Failed to queue messages\"}")
+                    .build();
+            }
+
+            for (int i = 0; i < valid.size(); i++) {
+                result.accepted.add(new SmsBatchResult.Accepted(validIndexes.get(i), valid.get(i).id));
+            }
+        }
+
+        LOG.infof("SMS batch processed: %d accepted, %d rejected",
+                  result.accepted.size(), result.rejected.size());
+
+        return Response.ok(result).build();
+    }
+
+    /**
+     * Retrieves one page of SMS messages, newest first, optionally filtered by
+     * status, phone number and creation time range. Pages are addressed by an opaque
+     * cursor so that fetching a late page costs the same as fetching the first one.
      */
     @GET
     @Path("/messages")
+    @RunOnVirtualThread
     @Operation(
         summary = "List SMS messages",
-        description = "Retrieves all SMS messages for the current user"
+        description = "Retrieves a page of SMS messages, newest first. Pass next_cursor back as cursor to fetch the following page"
     )
     @APIResponse(
         responseCode = "200",
-        description = "List of SMS messages retrieved successfully",
+        description = "Page of SMS messages retrieved successfully",
         content = @Content(
             mediaType = MediaType.APPLICATION_JSON,
-            schema = @Schema(implementation = SmsMessage.class)
+            schema = @Schema(implementation = SmsMessagePage.class)
+        )
+    )
+    @APIResponse(
+        responseCode = "400",
+        description = "Invalid filter, cursor or limit",
+        content = @Content(
+            mediaType = MediaType.APPLICATION_JSON,
+            schema = @Schema(example = "{\"error\":\"Invalid cursor\"}")
         )
     )
     @APIResponse(
@@ -151,17 +370,46 @@ public class ApiResource {
             schema = @Schema(example = "{\"error\":\"Failed to retrieve messages\"}")
         )
     )
-    public Response listSms() {
+    public Response listSms(
+        @Parameter(description = "Only messages with this status")
+        @QueryParam("status") String status,
+        @Parameter(description = "Only messages sent to this phone number")
+        @QueryParam("phoneNumber") String phoneNumber,
+        @Parameter(description = "Only messages created at or after this time (ISO-8601)")
+        @QueryParam("from") String from,
+        @Parameter(description = "Only messages created before this time (ISO-8601)")
+        @QueryParam("to") String to,
+        @Parameter(description = "Cursor returned as next_cursor by the previous page")
+        @QueryParam("cursor") String cursor,
+        @Parameter(description = "Maximum number of messages per page")
+        @QueryParam("limit") @DefaultValue("50") int limit
+    ) {
         LOG.infof("Listing SMS messages for current user");
 
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            return Response.status(400)
+                .entity(String.format("{\"error\":\"Limit must be between 1 and %d\"}", MAX_PAGE_SIZE))
+                .build();
+        }
+
+        SmsMessageFilter filter;
+        MessageCursor position;
         try {
-            List<SmsMessage> messages = entityManager
-                .createQuery("SELECT s FROM SmsMessage s", SmsMessage.class)
-                .getResultList();
+            filter = new SmsMessageFilter(status, smsValidator.normalizePhoneNumber(phoneNumber),
+                                          parseTime(from), parseTime(to));
+            position = cursor == null ? null : MessageCursor.decode(cursor);
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            return Response.status(400)
+                .entity("{\"error\":\"Invalid cursor or time range\"}")
+                .build();
+        }
+
+        try {
+            SmsMessagePage page = smsMessageQueryService.findPage(filter, position, limit);
 
-            return Response.ok(messages).build();
+            return Response.ok(page).build();
         } catch (Exception e) {
-            LOG.error("Failed to retrieve SMS messages for user");
+            LOG.error("Failed to retrieve SMS messages for user", e);
 
             return Response.status(500)
                 .entity("{\"error\":\"Failed to retrieve messages\"}")
@@ -169,20 +417,144 @@ public class ApiResource {
         }
     }
 
+    /**
+     * Retrieves a single SMS message, e.g. to poll its delivery status.
+     * Served from an in-process cache that status callbacks invalidate.
+     */
+    @GET
+    @Path("/messages/{id: \\d+}")
+    @RunOnVirtualThread
+    @Operation(
+        summary = "Get SMS message",
+        description = "Retrieves a single SMS message including its current delivery status"
+    )
+    @APIResponse(
+        responseCode = "200",
+        description = "SMS message retrieved successfully",
+        content = @Content(
+            mediaType = MediaType.APPLICATION_JSON,
+            schema = @Schema(implementation = SmsMessage.class)
+        )
+    )
+    @APIResponse(
+        responseCode = "404",
+        description = "SMS message not found",
+        content = @Content(
+            mediaType = MediaType.APPLICATION_JSON,
+            schema = @Schema(example = "{\"error\":\"Message not found\"}")
+        )
+    )
+    public Response getSms(
+        @Parameter(description = "Message id", required = true)
+        @PathParam("id") Long id
+    ) {
+        SmsMessage smsMessage = smsMessageCache.get(id);
+        if (smsMessage == null) {
+            return Response.status(404)
+                .entity("{\"error\":\"Message not found\"}")
+                .build();
+        }
+        return Response.ok(smsMessage).build();
+    }
+
+    /**
+     * Retrieves the lifecycle history of a single SMS message: when it was queued,
+     * dispatched to the processor and every status callback received for it.
+     * Events are written asynchronously and may appear up to a second late.
+     */
+    @GET
+    @Path("/messages/{id: \\d+}/events")
+    @RunOnVirtualThread
+    @Operation(
+        summary = "Get SMS message history",
+        description = "Retrieves the lifecycle events of an SMS message, oldest first"
+    )
+    @APIResponse(
+        responseCode = "200",
+        description = "Events retrieved successfully, empty if the message is unknown",
+        content = @Content(
+            mediaType = MediaType.APPLICATION_JSON,
+            schema = @Schema(implementation = SmsMessageEvent.class, type = SchemaType.ARRAY)
+        )
+    )
+    public List<SmsMessageEvent> getSmsEvents(
+        @Parameter(description = "Message id", required = true)
+        @PathParam("id") Long id
+    ) {
+        return smsEventLog.findByMessageId(id);
+    }
+
+    /**
+     * Streams every SMS message matching the filters as NDJSON or CSV.
+     * Rows are read through a database cursor and written to the response as they arrive,
+     * so exports of any size run in constant memory.
+     */
+    @GET
+    @Path("/messages/export")
+    @RunOnVirtualThread
+    @Produces({"application/x-ndjson", "text/csv"})
+    @Operation(
+        summary = "Export SMS messages",
+        description = "Streams all SMS messages matching the filters, oldest first, as NDJSON (default) or CSV"
+    )
+    @APIResponse(
+        responseCode = "200",
+        description = "Export stream"
+    )
+    @APIResponse(
+        responseCode = "400",
+        description = "Invalid format or time range"
+    )
+    public Response exportSms(
+        @Parameter(description = "Output format: ndjson or csv")
+        @QueryParam("format") @DefaultValue("ndjson") String format,
+        @Parameter(description = "Only messages with this status")
+        @QueryParam("status") String status,
+        @Parameter(description = "Only messages sent to this phone number")
+        @QueryParam("phoneNumber") String phoneNumber,
+        @Parameter(description = "Only messages created at or after this time (ISO-8601)")
+        @QueryParam("from") String from,
+        @Parameter(description = "Only messages created before this time (ISO-8601)")
+        @QueryParam("to") String to
+    ) {
+        ExportFormat exportFormat;
+        SmsMessageFilter filter;
+        try {
+            exportFormat = ExportFormat.valueOf(format.toUpperCase());
+            filter = new SmsMessageFilter(status, smsValidator.normalizePhoneNumber(phoneNumber),
+                                          parseTime(from), parseTime(to));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            return Response.status(400)
+                .type(MediaType.APPLICATION_JSON)
+                .entity("{\"error\":\"Invalid format or time range\"}")
+                .build();
+        }
+
+        LOG.infof("Exporting SMS messages as %s", exportFormat);
+
+        StreamingOutput stream = out -> smsExportService.export(filter, exportFormat, out);
+        return Response.ok(stream, exportFormat.getMediaType()).build();
+    }
+
     /**
      * Handles SMS delivery status callbacks from the SMS provider,
-     * updating the message status in the database.
+     * updating the message status in the database. Statuses only move forward,
+     * so a late or repeated callback is accepted without changing anything.
      */
     @POST
     @Path("/callback")
-    @Transactional
+    @RunOnVirtualThread
         @Operation(
         summary = "Handle SMS status callback",
         description = "Updates SMS message status based on delivery provider callback"
     )
     @APIResponse(
         responseCode = "200",
-        description = "Status updated successfully"
+        description = "Status updated, or ignored because the message already has this or a later status"
+    )
+    @APIResponse(
+        responseCode = "400",
+        description = "Callback without numeric id, with unknown status or malformed delivered_at"
     )
     @APIResponse(
         responseCode = "404",
@@ -197,22 +569,28 @@ public class ApiResource {
         SmsCallback callback
     ) {
             LOG.infof("Received callback for SMS ID: %s with status: %s", callback.id, callback.status);
-            
+
+            StatusUpdate update;
+            try {
+                update = StatusUpdate.of(callback);
+            } catch (IllegalArgumentException e) {
+                return Response.status(400)
+                    .entity("{\"error\":\"Callback requires a numeric id, a known status and a valid delivered_at\"}")
+                    .build();
+            }
+
             try {
-                int updated = entityManager.createQuery(
-                    "UPDATE SmsMessage s SET s.status = :status WHERE s.id = :id")
-                    .setParameter("status", callback.status.toUpperCase())
-                    .setParameter("id", Long.valueOf(callback.id))
-                    .executeUpdate();
-                
-                LOG.infof("Update status: %s", updated);
-
-                if (updated > 0) {
-                    LOG.infof("Successfully updated SMS %s status to %s", callback.id, callback.status);
-                    return Response.ok().build();
-                } else {
-                    LOG.warnf("No SMS found with ID %s", callback.id);
-                    return Response.status(404).build();
+                switch (smsStatusService.apply(update)) {
+                    case UPDATED:
+                        LOG.infof("Successfully updated SMS %s status to %s", callback.id, update.status());
+                        return Response.ok().build();
+                    case IGNORED:
+                        LOG.infof("Ignored %s callback for SMS %s, status already final or later", update.status(), callback.id);
+                        return Response.ok().build();
+                    case NOT_FOUND:
+                    default:
+                        LOG.warnf("No SMS found with ID %s", callback.id);
+                        return Response.status(404).build();
                 }
             } catch (Exception e) {
                 LOG.error("Failed to update SMS status", e);
@@ -220,4 +598,97 @@ public class ApiResource {
 
             return Response.status(500).build();
     }
-}
\ No newline at end of file
+
+    /**
+     * Handles a batch of SMS delivery status callbacks, applying all status
+     * changes with a single set-based update.
+     */
+    @POST
+    @Path("/callback/batch")
+    @RunOnVirtualThread
+    @Operation(
+        summary = "Handle SMS status callbacks in bulk",
+        description = "Updates the status of many SMS messages in one statement. Entries without a numeric id, "
+            + "with an unknown status or a malformed timestamp are rejected individually; the others are applied"
+    )
+    @APIResponse(
+        responseCode = "200",
+        description = "Valid statuses applied, invalid entries listed as rejected",
+        content = @Content(
+            mediaType = MediaType.APPLICATION_JSON,
+            schema = @Schema(implementation = SmsCallbackBatchResult.class)
+        )
+    )
+    @APIResponse(
+        responseCode = "400",
+        description = "Empty batch"
+    )
+    @APIResponse(
+        responseCode = "500",
+        description = "Internal server error"
+    )
+    public Response callbackBatch(
+        @Parameter(description = "SMS callback data", required = true)
+        List<SmsCallback> callbacks
+    ) {
+        if (callbacks == null || callbacks.isEmpty()) {
+            return Response.status(400)
+                .entity("{\"error\":\"Batch must contain at least one callback\"}")
+                .build();
+        }
+
+        SmsCallbackBatchResult result = new SmsCallbackBatchResult();
+        result.received = callbacks.size();
+        List<StatusUpdate> updates = new ArrayList<>(callbacks.size());
+        for (int i = 0; i < callbacks.size(); i++) {
+            try {
+                updates.add(StatusUpdate.of(callbacks.get(i)));
+            } catch (IllegalArgumentException e) {
+                // Rejecting the whole batch would make the sender retry the valid updates along with it
+                result.rejected.add(new SmsBatchResult.Rejected(
+                    i, "A callback requires a numeric id, a known status and valid timestamps",
+                    List.of(String.valueOf(e.getMessage()))));
+            }
+        }
+
+        LOG.infof("Received callback batch with %d entries, %d rejected", callbacks.size(), result.rejected.size());
+
+        try {
+            result.updated = updates.isEmpty() ? 0 : smsStatusService.applyBatch(updates);
+
+            return Response.ok().entity(result).build();
+        } catch (Exception e) {
+            LOG.error("Failed to apply callback batch", e);
+        }
+
+        return Response.status(500).build();
+    }
+
+    private static LocalDateTime parseTime(String value) {
+        return value == null ? null : LocalDateTime.parse(value);
+    }
+
+    // Quota key: the API key when the client sends one, its address otherwise
+    static String clientKey(String apiKey, HttpServerRequest request) {
+        if (apiKey != null && !apiKey.isBlank()) {
+            return "key:" + apiKey;
+        }
+        return "ip:" + request.remoteAddress().hostAddress();
+    }
+
+    static Response replayQueued(String idempotencyKey) {
+        LOG.infof("Replaying response for Idempotency-Key %s", idempotencyKey);
+        return Response.ok()
+            .header("Idempotent-Replayed", "true")
+            .entity(QUEUED_RESPONSE)
+            .build();
+    }
+
+    static Response tooManyRequests(AdmissionController.Admission admission) {
+        LOG.warnf("Rejected SMS request: %s", admission.reason());
+        return Response.status(429)
+            .header("Retry-After", admission.retryAfterSeconds())
+            .entity(String.format("{\"error\":\"%s\"}", admission.reason()))
+            .build();
+    }
+}
@@ -0,0 +1,155 @@
+package com.mstrouthos.resource;
+
+import com.mstrouthos.dto.SmsCallback;
+import com.mstrouthos.dto.SmsMessage;
+import com.mstrouthos.dto.SmsPriority;
+import com.mstrouthos.dto.SmsStatus;
+import com.mstrouthos.service.AdmissionController;
+import com.mstrouthos.service.IdempotencyService;
+import com.mstrouthos.service.ReactiveSmsService;
+import com.mstrouthos.service.StatusUpdate;
+import com.mstrouthos.validation.SmsValidator;
+import com.mstrouthos.validation.ValidationResult;
+import io.smallrye.mutiny.Uni;
+import io.vertx.core.http.HttpServerRequest;
+import org.eclipse.microprofile.openapi.annotations.Operation;
+import org.eclipse.microprofile.openapi.annotations.parameters.Parameter;
+import org.eclipse.microprofile.openapi.annotations.tags.Tag;
+import org.jboss.logging.Logger;
+
+import jakarta.inject.Inject;
+import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import java.time.LocalDateTime;
+
+/**
+ * Non-blocking implementations of /send and /callback. They run on the event loop and compose
+ * the database work through {@link ReactiveSmsService}, so no worker or virtual thread waits on I/O.
+ * Requests and responses are the same as {@link ApiResource}'s; {@link ApiModeFilter} serves
+ * the public paths from here when {@code sms.api.mode} is reactive.
+ */
+@Path("/api/sms/reactive")
+@Produces(MediaType.APPLICATION_JSON)
+@Consumes(MediaType.APPLICATION_JSON)
+@Tag(name = "SMS (reactive)", description = "Event loop implementations of the send and callback operations")
+public class ReactiveApiResource {
+    private static final Logger LOG = Logger.getLogger(ReactiveApiResource.class);
+
+    @Inject
+    SmsValidator smsValidator;
+
+    @Inject
+    AdmissionController admissionController;
+
+    @Inject
+    ReactiveSmsService reactiveSmsService;
+
+    @Inject
+    IdempotencyService idempotencyService;
+
+    /**
+     * Sends an SMS message, see {@link ApiResource#sendSms}.
+     */
+    @POST
+    @Path("/send")
+    @Operation(
+        summary = "Send SMS message (reactive)",
+        description = "Validates and queues an SMS message for delivery without blocking a thread"
+    )
+    public Uni<Response> sendSms(
+        @Parameter(description = "SMS message details", required = true)
+        SmsMessage smsMessage,
+        @Parameter(description = "API key identifying the client for quota purposes")
+        @HeaderParam("X-API-Key") String apiKey,
+        @Parameter(description = "Client chosen unique key (e.g. a UUID) that makes retries of this request safe")
+        @HeaderParam("Idempotency-Key") String idempotencyKey,
+        @Context HttpServerRequest request
+    ) {
+        if (idempotencyKey != null) {
+            if (idempotencyKey.isBlank() || idempotencyKey.length() > IdempotencyService.MAX_KEY_LENGTH) {
+                return Uni.createFrom().item(Response.status(400)
+                    .entity(String.format("{\"error\":\"Idempotency-Key must be 1 to %d characters\"}",
+                            IdempotencyService.MAX_KEY_LENGTH))
+                    .build());
+            }
+            // Only the cache is checked here; a key already in the database is caught when claiming it
+            if (idempotencyService.findCachedMessageId(idempotencyKey) != null) {
+                return Uni.createFrom().item(ApiResource.replayQueued(idempotencyKey));
+            }
+        }
+
+        AdmissionController.Admission admission = admissionController.admit(ApiResource.clientKey(apiKey, request), 1);
+        if (!admission.admitted()) {
+            return Uni.createFrom().item(ApiResource.tooManyRequests(admission));
+        }
+
+        ValidationResult validation = smsValidator.validateSmsRequest(smsMessage);
+        if (!validation.isValid()) {
+            LOG.warnf("SMS validation failed: %s", validation.getErrorMessage());
+            return Uni.createFrom().item(Response.status(400)
+                .entity(String.format("{\"error\":\"%s\",\"details\":%s}",
+                       validation.getErrorMessage(), validation.getErrorDetailsJson()))
+                .build());
+        }
+
+        smsMessage.phoneNumber = smsValidator.normalizePhoneNumber(smsMessage.phoneNumber);
+        smsMessage.createdAt = LocalDateTime.now();
+        smsMessage.status = SmsStatus.QUEUED.name();
+        if (smsMessage.priority == null) {
+            smsMessage.priority = SmsPriority.BULK;
+        }
+
+        return reactiveSmsService.persistAndQueue(smsMessage, idempotencyKey)
+            .map(queued -> {
+                if (!queued) {
+                    return ApiResource.replayQueued(idempotencyKey);
+                }
+                LOG.debugf("SMS message %d queued", smsMessage.id);
+                return Response.ok().entity(ApiResource.QUEUED_RESPONSE).build();
+            })
+            .onFailure().recoverWithItem(failure -> {
+                LOG.error("Failed to queue SMS message", failure);
+                return Response.status(500)
+                    .entity("{\"error\":\"Failed to queue message\"}")
+                    .build();
+            });
+    }
+
+    /**
+     * Handles an SMS delivery status callback, see {@link ApiResource#callback}.
+     */
+    @POST
+    @Path("/callback")
+    @Operation(
+        summary = "Handle SMS status callback (reactive)",
+        description = "Updates the status of an SMS message without blocking a thread"
+    )
+    public Uni<Response> callback(
+        @Parameter(description = "SMS callback data", required = true)
+        SmsCallback callback
+    ) {
+        StatusUpdate update;
+        try {
+            update = StatusUpdate.of(callback);
+        } catch (IllegalArgumentException e) {
+            return Uni.createFrom().item(Response.status(400)
+                .entity("{\"error\":\"Callback requires a numeric id, a known status and a valid delivered_at\"}")
+                .build());
+        }
+
+        return reactiveSmsService.apply(update)
+            .map(outcome -> switch (outcome) {
+                case UPDATED, IGNORED -> Response.ok().build();
+                case NOT_FOUND -> {
+                    LOG.warnf("No SMS found with ID %s", callback.id);
+                    yield Response.status(404).build();
+                }
+            })
+            .onFailure().recoverWithItem(failure -> {
+                LOG.error("Failed to update SMS status", failure);
+                return Response.status(500).build();
+            });
+    }
+}
@@ -0,0 +1,119 @@
+package com.mstrouthos.service;
+
+import io.quarkus.scheduler.Scheduled;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decides whether a send request is admitted.
+ *
+ * Requests are rejected globally while the outbox holds more than {@code sms.admission.max-outbox-backlog}
+ * messages, i.e. before the relay and broker fall behind for good, and per client once the client used up
+ * its quota. Quotas are token buckets implemented as GCRA with one AtomicLong per client, so clients never
+ * contend on shared state. A request costs one token per message and is admitted while the client's bucket
+ * is not in debt, which lets a large batch through and then holds the client back until it is paid off.
+ */
+@ApplicationScoped
+public class AdmissionController {
+    private static final Logger LOG = Logger.getLogger(AdmissionController.class);
+
+    private static final String BACKLOG_SQL = "SELECT count(*) FROM (SELECT 1 FROM sms_outbox LIMIT :limit) o";
+
+    @Inject
+    EntityManager entityManager;
+
+    @ConfigProperty(name = "sms.quota.rate", defaultValue = "100")
+    double quotaRate;
+
+    @ConfigProperty(name = "sms.quota.burst", defaultValue = "1000")
+    int quotaBurst;
+
+    @ConfigProperty(name = "sms.admission.max-outbox-backlog", defaultValue = "50000")
+    long maxOutboxBacklog;
+
+    @ConfigProperty(name = "sms.admission.retry-after-seconds", defaultValue = "5")
+    long overloadRetryAfterSeconds;
+
+    private final ConcurrentHashMap<String, AtomicLong> arrivals = new ConcurrentHashMap<>();
+    private volatile long outboxBacklog;
+
+    /**
+     * Outcome of an admission check.
+     *
+     * @param admitted          Whether the request may proceed
+     * @param retryAfterSeconds Suggested Retry-After for rejected requests
+     * @param reason            Error message for rejected requests
+     */
+    public record Admission(boolean admitted, long retryAfterSeconds, String reason) {
+        static final Admission ADMITTED = new Admission(true, 0, null);
+    }
+
+    /**
+     * Checks global capacity and the client's quota, charging the quota if the request is admitted.
+     *
+     * @param clientKey Identifies the client, e.g. its API key or IP address
+     * @param messages  Number of messages the request sends
+     */
+    public Admission admit(String clientKey, int messages) {
+        if (outboxBacklog >= maxOutboxBacklog) {
+            return new Admission(false, overloadRetryAfterSeconds, "Service overloaded, retry later");
+        }
+
+        long interval = (long) (TimeUnit.SECONDS.toNanos(1) / quotaRate);
+        long tolerance = interval * quotaBurst;
+        long now = System.nanoTime();
+
+        AtomicLong arrival = arrivals.get(clientKey);
+        if (arrival == null) {
+            arrival = arrivals.computeIfAbsent(clientKey, key -> new AtomicLong(now));
+        }
+
+        while (true) {
+            long theoreticalArrival = arrival.get();
+            long start = Math.max(theoreticalArrival, now);
+            long wait = start + interval - tolerance - now;
+            if (wait > 0) {
+                long retryAfter = Math.max(1, (wait + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+                return new Admission(false, retryAfter, "Rate limit exceeded");
+            }
+            if (arrival.compareAndSet(theoreticalArrival, start + interval * messages)) {
+                return Admission.ADMITTED;
+            }
+        }
+    }
+
+    /**
+     * Refreshes the outbox backlog; counting stops just past the limit so the query stays cheap.
+     */
+    @Scheduled(every = "${sms.admission.backlog-check-interval:1s}", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    @Transactional
+    void refreshBacklog() {
+        long backlog = ((Number) entityManager.createNativeQuery(BACKLOG_SQL)
+            .setParameter("limit", maxOutboxBacklog + 1)
+            .getSingleResult()).longValue();
+
+        if (backlog >= maxOutboxBacklog && outboxBacklog < maxOutboxBacklog) {
+            LOG.warnf("Outbox backlog reached %d messages, rejecting sends", backlog);
+        } else if (backlog < maxOutboxBacklog && outboxBacklog >= maxOutboxBacklog) {
+            LOG.infof("Outbox backlog down to %d messages, accepting sends again", backlog);
+        }
+        outboxBacklog = backlog;
+    }
+
+    /**
+     * Forgets clients whose bucket has refilled completely, which bounds the map to active clients.
+     */
+    @Scheduled(every = "1m")
+    void evictIdleClients() {
+        long now = System.nanoTime();
+        arrivals.values().removeIf(arrival -> arrival.get() < now);
+    }
+}
@@ -0,0 +1,19 @@
+package com.mstrouthos.service;
+
+/**
+ * Output formats supported by the message export.
+ */
+public enum ExportFormat {
+    NDJSON("application/x-ndjson"),
+    CSV("text/csv");
+
+    private final String mediaType;
+
+    ExportFormat(String mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+}
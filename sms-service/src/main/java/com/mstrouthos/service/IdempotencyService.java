@@ -0,0 +1,130 @@
+package com.mstrouthos.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Resolves Idempotency-Key headers of /send requests to the message created for them.
+ *
+ * Keys are looked up in a bounded, expiring in-memory cache first and in sms_idempotency_keys second.
+ * The table's primary key is authoritative: of two concurrent requests with the same key only one
+ * can {@link #claim} it. Keys live in their own table because sms_messages is partitioned by
+ * created_at and cannot enforce uniqueness across partitions; they are deleted together with the
+ * partitions they point to.
+ */
+@ApplicationScoped
+public class IdempotencyService {
+
+    public static final int MAX_KEY_LENGTH = 128;
+
+    @Inject
+    EntityManager entityManager;
+
+    @Inject
+    TransactionSynchronizationRegistry transactionSynchronizationRegistry;
+
+    @ConfigProperty(name = "sms.idempotency.cache-size", defaultValue = "100000")
+    long cacheSize;
+
+    @ConfigProperty(name = "sms.idempotency.cache-ttl", defaultValue = "1H")
+    Duration cacheTtl;
+
+    private Cache<String, Long> messageIds;
+
+    @PostConstruct
+    void init() {
+        messageIds = Caffeine.newBuilder()
+            .maximumSize(cacheSize)
+            .expireAfterWrite(cacheTtl)
+            .build();
+    }
+
+    /**
+     * @return Id of the message already created for the key, or null if there is none
+     */
+    public Long findMessageId(String idempotencyKey) {
+        Long messageId = messageIds.getIfPresent(idempotencyKey);
+        if (messageId != null) {
+            return messageId;
+        }
+
+        List<?> ids = entityManager
+            .createNativeQuery("SELECT message_id FROM sms_idempotency_keys WHERE idempotency_key = :key")
+            .setParameter("key", idempotencyKey)
+            .getResultList();
+        if (ids.isEmpty()) {
+            return null;
+        }
+
+        messageId = ((Number) ids.get(0)).longValue();
+        messageIds.put(idempotencyKey, messageId);
+        return messageId;
+    }
+
+    /**
+     * @return Id of the message cached for the key, or null; never queries the database
+     */
+    public Long findCachedMessageId(String idempotencyKey) {
+        return messageIds.getIfPresent(idempotencyKey);
+    }
+
+    /**
+     * Caches the key of a committed send.
+     */
+    public void remember(String idempotencyKey, Long messageId) {
+        messageIds.put(idempotencyKey, messageId);
+    }
+
+    /**
+     * Records the key for a message created in the current transaction. Waits for a concurrent
+     * transaction holding the same key to finish.
+     *
+     * @return false if the key already belongs to another message; the current transaction is then
+     *         marked for rollback
+     */
+    public boolean claim(String idempotencyKey, Long messageId, LocalDateTime createdAt) {
+        int inserted = entityManager
+            .createNativeQuery("INSERT INTO sms_idempotency_keys (idempotency_key, message_id, created_at) " +
+                               "VALUES (:key, :messageId, :createdAt) ON CONFLICT DO NOTHING")
+            .setParameter("key", idempotencyKey)
+            .setParameter("messageId", messageId)
+            .setParameter("createdAt", createdAt)
+            .executeUpdate();
+        if (inserted == 0) {
+            transactionSynchronizationRegistry.setRollbackOnly();
+            return false;
+        }
+
+        rememberOnCommit(idempotencyKey, messageId);
+        return true;
+    }
+
+    /**
+     * Caches the key once the current transaction commits, so a rolled back send is never replayed.
+     */
+    private void rememberOnCommit(String idempotencyKey, Long messageId) {
+        transactionSynchronizationRegistry.registerInterposedSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {}
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status == Status.STATUS_COMMITTED) {
+                    messageIds.put(idempotencyKey, messageId);
+                }
+            }
+        });
+    }
+}
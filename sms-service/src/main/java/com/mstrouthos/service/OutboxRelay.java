@@ -0,0 +1,286 @@
+package com.mstrouthos.service;
+
+import com.mstrouthos.dto.SmsMessage;
+import com.mstrouthos.dto.SmsPriority;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.scheduler.Scheduled;
+import io.smallrye.reactive.messaging.annotations.OnOverflow;
+import io.smallrye.reactive.messaging.rabbitmq.OutgoingRabbitMQMetadata;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.reactive.messaging.Channel;
+import org.eclipse.microprofile.reactive.messaging.Emitter;
+import org.eclipse.microprofile.reactive.messaging.Message;
+import org.eclipse.microprofile.reactive.messaging.Metadata;
+import org.jboss.logging.Logger;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes messages recorded in the sms_outbox table to sms-queue.
+ *
+ * Each cycle claims the oldest outbox rows with FOR UPDATE SKIP LOCKED, publishes the
+ * referenced messages, waits for the broker's publisher confirms and deletes the claimed rows
+ * in the same transaction. A row therefore disappears only after the broker has the message,
+ * and a failed publish rolls back so the rows are picked up again by the next cycle.
+ * Several sms-service replicas can relay concurrently without claiming the same rows.
+ * Messages are encoded by {@link SmsQueueCodec} and tagged with its content-type.
+ *
+ * High priority rows are published on sms-queue-priority, bulk rows on sms-queue, or on the sms-shards
+ * exchange routed by {@link ShardRouter} when {@code sms.queue.shards} is above 1. While both are
+ * backlogged a batch claims up to {@code sms.outbox.high-priority-weight} high priority rows per bulk
+ * row, like the processor's lanes, so a steady OTP backlog delays bulk traffic but never starves it;
+ * either class takes the whole batch when the other has nothing waiting (or bulk is paused for a reshard).
+ * Draining continues while any claim of a batch comes back full.
+ * The time from acceptance (or the requested send time) to broker confirm is recorded per priority
+ * as {@code sms.ingest.latency}.
+ */
+@ApplicationScoped
+public class OutboxRelay {
+    private static final Logger LOG = Logger.getLogger(OutboxRelay.class);
+
+    // One relay batch is in flight at a time, so sms.outbox.batch-size must stay within each buffer
+    @Inject
+    @Channel("sms-queue")
+    @OnOverflow(value = OnOverflow.Strategy.BUFFER, bufferSize = 1024)
+    Emitter<byte[]> smsEmitter;
+
+    @Inject
+    @Channel("sms-queue-priority")
+    @OnOverflow(value = OnOverflow.Strategy.BUFFER, bufferSize = 1024)
+    Emitter<byte[]> prioritySmsEmitter;
+
+    @Inject
+    @Channel("sms-shards")
+    @OnOverflow(value = OnOverflow.Strategy.BUFFER, bufferSize = 1024)
+    Emitter<byte[]> shardedSmsEmitter;
+
+    @Inject
+    ShardRouter shardRouter;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @Inject
+    EntityManager entityManager;
+
+    @Inject
+    SmsQueueCodec smsQueueCodec;
+
+    @Inject
+    SmsEventLog smsEventLog;
+
+    @ConfigProperty(name = "sms.outbox.batch-size", defaultValue = "500")
+    int batchSize;
+
+    @ConfigProperty(name = "sms.outbox.confirm-timeout-seconds", defaultValue = "30")
+    long confirmTimeoutSeconds;
+
+    @ConfigProperty(name = "sms.outbox.high-priority-weight", defaultValue = "8")
+    int highPriorityWeight;
+
+    private final Map<SmsPriority, Timer> ingestLatency = new EnumMap<>(SmsPriority.class);
+
+    @PostConstruct
+    void init() {
+        for (SmsPriority priority : SmsPriority.values()) {
+            ingestLatency.put(priority, Timer.builder("sms.ingest.latency")
+                .description("Time from accepting an SMS message to the broker confirming it")
+                .tag("priority", priority.name().toLowerCase())
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry));
+        }
+    }
+
+    /**
+     * Rows claimed for one batch.
+     *
+     * @param rows id, message_id and created_at of each claimed outbox row
+     * @param more Whether a claim came back full, so more rows may be waiting
+     */
+    record Batch(List<Object[]> rows, boolean more) {}
+
+    /**
+     * Drains the outbox until no claim of a cycle comes back full.
+     */
+    @Scheduled(every = "${sms.outbox.poll-interval:0.5s}", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void drain() {
+        try {
+            boolean more;
+            do {
+                more = QuarkusTransaction.requiringNew().call(this::relayBatch);
+            } while (more);
+        } catch (Exception e) {
+            LOG.error("Failed to relay SMS outbox, will retry on next cycle", e);
+        }
+    }
+
+    /**
+     * Claims, publishes and deletes one batch of outbox rows. Must run inside a transaction.
+     *
+     * @return Whether more rows may be waiting
+     */
+    boolean relayBatch() {
+        // Bulk rows stay in the outbox while their queues are being resharded or not yet declared
+        Batch batch = claimBatch(shardRouter.isBulkPublishingAllowed());
+        List<Object[]> claimed = batch.rows();
+        if (claimed.isEmpty()) {
+            return false;
+        }
+
+        List<Long> outboxIds = new ArrayList<>(claimed.size());
+        List<Long> messageIds = new ArrayList<>(claimed.size());
+        LocalDateTime oldest = null;
+        for (Object[] row : claimed) {
+            outboxIds.add(((Number) row[0]).longValue());
+            messageIds.add(((Number) row[1]).longValue());
+            LocalDateTime createdAt = toLocalDateTime(row[2]);
+            if (oldest == null || createdAt.isBefore(oldest)) {
+                oldest = createdAt;
+            }
+        }
+
+        Map<Long, SmsMessage> messages = new HashMap<>(messageIds.size() * 2);
+        for (SmsMessage smsMessage : entityManager
+                // Outbox rows share their message's created_at; the bound keeps old partitions out of the scan
+                .createQuery("SELECT s FROM SmsMessage s WHERE s.id IN :ids AND s.createdAt >= :oldest", SmsMessage.class)
+                .setParameter("ids", messageIds)
+                .setParameter("oldest", oldest)
+                .getResultList()) {
+            messages.put(smsMessage.id, smsMessage);
+        }
+
+        // Publish in outbox order; rows whose message no longer exists are simply discarded
+        List<CompletableFuture<Void>> confirms = new ArrayList<>(messageIds.size());
+        for (Long messageId : messageIds) {
+            SmsMessage smsMessage = messages.get(messageId);
+            if (smsMessage != null) {
+                confirms.add(publish(smsMessage));
+            }
+        }
+
+        awaitConfirms(confirms);
+
+        entityManager.createQuery("DELETE FROM SmsOutboxEntry o WHERE o.id IN :ids")
+            .setParameter("ids", outboxIds)
+            .executeUpdate();
+        entityManager.clear();
+
+        LOG.debugf("Relayed %d SMS messages from outbox", confirms.size());
+        return batch.more();
+    }
+
+    /**
+     * Claims up to a batch of rows: high priority rows first, keeping a share of the batch for bulk rows,
+     * then bulk rows, then high priority rows again for whatever the bulk rows left unused.
+     *
+     * @param bulkAllowed Whether bulk rows may be claimed; if not, high priority rows take the whole batch
+     */
+    Batch claimBatch(boolean bulkAllowed) {
+        // Rows kept for bulk while high priority rows are waiting, at least one per batch
+        int bulkShare = bulkAllowed ? Math.max(1, batchSize / (highPriorityWeight + 1)) : 0;
+        int highLimit = batchSize - bulkShare;
+        List<Object[]> claimed = new ArrayList<>(claim(SmsPriority.HIGH, 0, highLimit));
+        boolean moreHigh = claimed.size() == highLimit;
+        boolean moreBulk = false;
+
+        if (bulkAllowed) {
+            int bulkLimit = batchSize - claimed.size();
+            List<Object[]> bulk = claim(SmsPriority.BULK, 0, bulkLimit);
+            moreBulk = bulk.size() == bulkLimit;
+            int highRows = claimed.size();
+            claimed.addAll(bulk);
+
+            int unused = batchSize - claimed.size();
+            if (moreHigh && unused > 0) {
+                // Rows this transaction already locked are not skipped, so continue after the last one
+                long lastHighId = ((Number) claimed.get(highRows - 1)[0]).longValue();
+                List<Object[]> high = claim(SmsPriority.HIGH, lastHighId, unused);
+                moreHigh = high.size() == unused;
+                claimed.addAll(high);
+            }
+        }
+        return new Batch(claimed, moreHigh || moreBulk);
+    }
+
+    /**
+     * Claims the oldest outbox rows of one priority, skipping rows claimed by other replicas.
+     *
+     * @param afterId Only rows with a larger id are claimed
+     */
+    @SuppressWarnings("unchecked")
+    List<Object[]> claim(SmsPriority priority, long afterId, int limit) {
+        return entityManager.createNativeQuery(
+                "SELECT id, message_id, created_at FROM sms_outbox WHERE priority = :priority AND id > :afterId " +
+                "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED")
+            .setParameter("priority", priority.ordinal())
+            .setParameter("afterId", afterId)
+            .setParameter("limit", limit)
+            .getResultList();
+    }
+
+    private CompletableFuture<Void> publish(SmsMessage smsMessage) {
+        CompletableFuture<Void> confirm = new CompletableFuture<>();
+        OutgoingRabbitMQMetadata.Builder metadata = OutgoingRabbitMQMetadata.builder()
+            .withContentType(smsQueueCodec.getContentType());
+        SmsPriority priority = smsMessage.priority != null ? smsMessage.priority : SmsPriority.BULK;
+        Emitter<byte[]> emitter;
+        if (priority == SmsPriority.HIGH) {
+            emitter = prioritySmsEmitter;
+        } else if (shardRouter.isSharded()) {
+            emitter = shardedSmsEmitter;
+            metadata.withRoutingKey(shardRouter.routingKey(smsMessage.phoneNumber));
+        } else {
+            emitter = smsEmitter;
+        }
+        // Scheduled messages count from their send time, not from when they were accepted
+        LocalDateTime requestedAt = smsMessage.sendAt != null && smsMessage.sendAt.isAfter(smsMessage.createdAt)
+            ? smsMessage.sendAt
+            : smsMessage.createdAt;
+        long messageId = smsMessage.id;
+
+        emitter.send(Message.of(smsQueueCodec.encode(smsMessage), Metadata.of(metadata.build()),
+            () -> {
+                LocalDateTime confirmedAt = LocalDateTime.now();
+                ingestLatency.get(priority).record(Duration.between(requestedAt, confirmedAt));
+                smsEventLog.record(new SmsEventLog.Event(messageId, SmsEventLog.DISPATCHED, confirmedAt, null));
+                confirm.complete(null);
+                return CompletableFuture.completedFuture(null);
+            },
+            reason -> {
+                confirm.completeExceptionally(reason);
+                return CompletableFuture.completedFuture(null);
+            }));
+        return confirm;
+    }
+
+    private void awaitConfirms(List<CompletableFuture<Void>> confirms) {
+        try {
+            CompletableFuture.allOf(confirms.toArray(new CompletableFuture[0]))
+                .get(confirmTimeoutSeconds, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for publisher confirms", e);
+        } catch (Exception e) {
+            throw new IllegalStateException("Broker did not confirm SMS outbox batch", e);
+        }
+    }
+
+    private static LocalDateTime toLocalDateTime(Object value) {
+        return value instanceof Timestamp timestamp ? timestamp.toLocalDateTime() : (LocalDateTime) value;
+    }
+}
@@ -0,0 +1,218 @@
+package com.mstrouthos.service;
+
+import com.mstrouthos.dto.SmsMessage;
+import com.mstrouthos.dto.SmsScheduledEntry;
+import com.mstrouthos.dto.SmsStatus;
+import io.smallrye.mutiny.Uni;
+import io.vertx.mutiny.sqlclient.Pool;
+import io.vertx.mutiny.sqlclient.Row;
+import io.vertx.mutiny.sqlclient.SqlConnection;
+import io.vertx.mutiny.sqlclient.Tuple;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Non-blocking counterpart of the JDBC send and callback paths, built on the reactive Postgres client.
+ *
+ * Writes the same rows in the same transactions as {@code ApiResource} and {@link SmsStatusService}, so
+ * both paths can serve one database: a send inserts the message and its outbox entry (published by the
+ * {@link OutboxRelay} as usual), and a status change is the same conditional UPDATE. Ids come from the
+ * sequences Hibernate uses, allocated in blocks of the same size, so ids of both paths never collide.
+ */
+@ApplicationScoped
+public class ReactiveSmsService {
+
+    // Must match allocationSize of SmsMessage.id and SmsOutboxEntry.id
+    private static final int ID_BLOCK_SIZE = 100;
+
+    private static final String CLAIM_KEY_SQL =
+        "INSERT INTO sms_idempotency_keys (idempotency_key, message_id, created_at) VALUES ($1, $2, $3) " +
+        "ON CONFLICT DO NOTHING";
+
+    private static final String INSERT_MESSAGE_SQL =
+        "INSERT INTO sms_messages (id, phone_number, message, created_at, status, priority, send_at) " +
+        "VALUES ($1, $2, $3, $4, $5, $6, $7)";
+
+    private static final String INSERT_OUTBOX_SQL =
+        "INSERT INTO sms_outbox (id, message_id, created_at, priority) VALUES ($1, $2, $3, $4)";
+
+    private static final String INSERT_SCHEDULED_SQL =
+        "INSERT INTO sms_scheduled (message_id, send_at, created_at, priority) VALUES ($1, $2, $3, $4)";
+
+    private static final String STORED_RANK = SmsStatus.rankSql("s.status");
+
+    private static final String UPDATE_SQL = updateSql(false);
+
+    private static final String UPDATE_IN_PARTITION_SQL = updateSql(true);
+
+    @Inject
+    Pool pool;
+
+    @Inject
+    IdempotencyService idempotencyService;
+
+    @Inject
+    SmsMessageCache smsMessageCache;
+
+    @Inject
+    SmsEventLog smsEventLog;
+
+    @Inject
+    SmsScheduler smsScheduler;
+
+    private final IdBlock messageIds = new IdBlock("sms_messages_seq");
+    private final IdBlock outboxIds = new IdBlock("sms_outbox_seq");
+
+    /**
+     * Persists a validated message with its outbox entry, or its schedule if sendAt is in the future,
+     * in one transaction. The message's createdAt, status and priority must be set; its id is assigned here.
+     *
+     * @param idempotencyKey Optional key; nothing is written if it already belongs to another message
+     * @return false if the key was taken, true once the message is committed
+     */
+    public Uni<Boolean> persistAndQueue(SmsMessage smsMessage, String idempotencyKey) {
+        boolean deferred = smsScheduler.isDeferred(smsMessage.sendAt);
+        return messageIds.next()
+            .flatMap(messageId -> outboxIds.next()
+                .flatMap(outboxId -> {
+                    smsMessage.id = messageId;
+                    return pool.withTransaction(connection -> claim(connection, idempotencyKey, smsMessage)
+                        .flatMap(claimed -> claimed
+                            ? insert(connection, smsMessage, deferred, outboxId).replaceWith(true)
+                            : Uni.createFrom().item(false)));
+                }))
+            .invoke(queued -> {
+                if (queued) {
+                    if (idempotencyKey != null) {
+                        idempotencyService.remember(idempotencyKey, smsMessage.id);
+                    }
+                    smsEventLog.record(
+                        new SmsEventLog.Event(smsMessage.id, SmsEventLog.QUEUED, smsMessage.createdAt, null));
+                    if (deferred) {
+                        smsScheduler.schedule(List.of(new SmsScheduledEntry(
+                            smsMessage.id, smsMessage.sendAt, smsMessage.createdAt, smsMessage.priority)));
+                    }
+                }
+            });
+    }
+
+    /**
+     * Applies one status change, see {@link SmsStatusService#apply(StatusUpdate)}.
+     */
+    public Uni<SmsStatusService.Outcome> apply(StatusUpdate update) {
+        boolean inPartition = update.createdAt() != null;
+        List<Object> parameters = new ArrayList<>(Arrays.asList(
+            update.status().name(), update.errorMessage(), update.deliveredAt(), update.id(),
+            update.status().getRank()));
+        if (inPartition) {
+            parameters.add(update.createdFrom());
+            parameters.add(update.createdTo());
+        }
+
+        return pool.preparedQuery(inPartition ? UPDATE_IN_PARTITION_SQL : UPDATE_SQL)
+            .execute(Tuple.from(parameters))
+            .map(rows -> {
+                Row row = rows.iterator().next();
+                if (row.getLong(0) > 0) {
+                    return SmsStatusService.Outcome.UPDATED;
+                }
+                return row.getBoolean(1) ? SmsStatusService.Outcome.IGNORED : SmsStatusService.Outcome.NOT_FOUND;
+            })
+            .invoke(outcome -> {
+                if (outcome == SmsStatusService.Outcome.UPDATED) {
+                    smsMessageCache.invalidate(update.id());
+                }
+                if (outcome != SmsStatusService.Outcome.NOT_FOUND) {
+                    LocalDateTime occurredAt = update.deliveredAt() != null ? update.deliveredAt() : LocalDateTime.now();
+                    smsEventLog.record(new SmsEventLog.Event(
+                        update.id(), update.status().name(), occurredAt, update.errorMessage()));
+                }
+            });
+    }
+
+    private Uni<Boolean> claim(SqlConnection connection, String idempotencyKey, SmsMessage smsMessage) {
+        if (idempotencyKey == null) {
+            return Uni.createFrom().item(true);
+        }
+        return connection.preparedQuery(CLAIM_KEY_SQL)
+            .execute(Tuple.of(idempotencyKey, smsMessage.id, smsMessage.createdAt))
+            .map(rows -> rows.rowCount() == 1);
+    }
+
+    private Uni<Void> insert(SqlConnection connection, SmsMessage smsMessage, boolean deferred, long outboxId) {
+        return connection.preparedQuery(INSERT_MESSAGE_SQL)
+            .execute(Tuple.from(Arrays.asList(smsMessage.id, smsMessage.phoneNumber, smsMessage.text,
+                                              smsMessage.createdAt, smsMessage.status, smsMessage.priority.name(),
+                                              smsMessage.sendAt)))
+            .flatMap(ignored -> deferred
+                ? connection.preparedQuery(INSERT_SCHEDULED_SQL)
+                    .execute(Tuple.of(smsMessage.id, smsMessage.sendAt, smsMessage.createdAt,
+                                      (short) smsMessage.priority.ordinal()))
+                : connection.preparedQuery(INSERT_OUTBOX_SQL)
+                    .execute(Tuple.of(outboxId, smsMessage.id, smsMessage.createdAt,
+                                      (short) smsMessage.priority.ordinal())))
+            .replaceWithVoid();
+    }
+
+    private static String updateSql(boolean inPartition) {
+        return "WITH updated AS (" +
+               "UPDATE sms_messages s SET status = $1, error_message = $2, delivered_at = $3 " +
+               "WHERE s.id = $4" + (inPartition ? " AND s.created_at BETWEEN $6 AND $7" : "") +
+               " AND " + STORED_RANK + " < $5 RETURNING s.id) " +
+               "SELECT (SELECT count(*) FROM updated), " +
+               "EXISTS (SELECT 1 FROM sms_messages WHERE id = $4" +
+               (inPartition ? " AND created_at BETWEEN $6 AND $7" : "") + ")";
+    }
+
+    /**
+     * Hands out ids from blocks of a sequence the way Hibernate's pooled optimizer does: nextval
+     * returns the upper bound of a block of {@link #ID_BLOCK_SIZE} ids.
+     */
+    private final class IdBlock {
+        private final String nextvalSql;
+        // Never held across the nextval round trip, only while reading or installing a block
+        private final ReentrantLock lock = new ReentrantLock();
+        private long next = 1;
+        private long last;
+
+        IdBlock(String sequence) {
+            this.nextvalSql = "SELECT nextval('" + sequence + "')";
+        }
+
+        Uni<Long> next() {
+            lock.lock();
+            try {
+                if (next <= last) {
+                    return Uni.createFrom().item(next++);
+                }
+            } finally {
+                lock.unlock();
+            }
+
+            // Concurrent callers may each fetch a block; the last one installed wins and the rest of the
+            // others is skipped, so ids can have gaps but are never handed out twice
+            return pool.query(nextvalSql).execute().flatMap(rows -> {
+                long upper = rows.iterator().next().getLong(0);
+                long lower = upper - ID_BLOCK_SIZE + 1;
+                if (lower < 1) {
+                    // The first value of a fresh sequence is special-cased by Hibernate, leave it
+                    return next();
+                }
+                lock.lock();
+                try {
+                    next = lower + 1;
+                    last = upper;
+                } finally {
+                    lock.unlock();
+                }
+                return Uni.createFrom().item(lower);
+            });
+        }
+    }
+}
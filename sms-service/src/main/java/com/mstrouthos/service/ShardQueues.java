@@ -0,0 +1,120 @@
+package com.mstrouthos.service;
+
+import com.rabbitmq.client.AMQP;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import io.vertx.rabbitmq.RabbitMQClient;
+import io.vertx.rabbitmq.RabbitMQOptions;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.time.Duration;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Declares and inspects the queues bulk messages are published to.
+ *
+ * The connector only declares the exchange it publishes to, and a direct exchange drops (and confirms)
+ * messages whose routing key has no bound queue. sms-service therefore declares every shard queue and
+ * its binding itself, with the same arguments as the processors' consumers, so messages for a shard
+ * without a running processor wait in its queue instead of being lost.
+ */
+@ApplicationScoped
+public class ShardQueues {
+    static final String EXCHANGE = "sms-shards";
+    static final String UNSHARDED_QUEUE = "sms-queue";
+    private static final String QUEUE_PREFIX = "sms-queue-shard-";
+
+    @Inject
+    Vertx vertx;
+
+    @ConfigProperty(name = "rabbitmq-host", defaultValue = "localhost")
+    String host;
+
+    @ConfigProperty(name = "rabbitmq-port", defaultValue = "5672")
+    int port;
+
+    @ConfigProperty(name = "rabbitmq-username", defaultValue = "guest")
+    String username;
+
+    @ConfigProperty(name = "rabbitmq-password", defaultValue = "guest")
+    String password;
+
+    @ConfigProperty(name = "sms.queue.topology-timeout", defaultValue = "10s")
+    Duration timeout;
+
+    private RabbitMQClient client;
+
+    @PostConstruct
+    void init() {
+        client = RabbitMQClient.create(vertx, new RabbitMQOptions()
+            .setHost(host)
+            .setPort(port)
+            .setUser(username)
+            .setPassword(password));
+    }
+
+    /**
+     * Declares the sms-shards exchange and shard queues 0 to shards - 1, each bound with its number.
+     * Declaring is idempotent; the arguments must match the processors' (single active consumer).
+     *
+     * @return Number of consumers of each shard queue
+     */
+    public int[] declare(int shards) {
+        connect();
+        await(client.exchangeDeclare(EXCHANGE, "direct", true, false));
+        JsonObject arguments = new JsonObject().put("x-single-active-consumer", true);
+        int[] consumers = new int[shards];
+        for (int shard = 0; shard < shards; shard++) {
+            String queue = queueName(shard);
+            AMQP.Queue.DeclareOk declared = await(client.queueDeclare(queue, true, false, false, arguments));
+            await(client.queueBind(queue, EXCHANGE, String.valueOf(shard)));
+            consumers[shard] = declared.getConsumerCount();
+        }
+        return consumers;
+    }
+
+    /**
+     * @return Messages waiting (not yet delivered) in sms-queue and the given shard queues
+     */
+    public long backlog(int shards) {
+        connect();
+        long backlog = await(client.messageCount(UNSHARDED_QUEUE));
+        for (int shard = 0; shard < shards; shard++) {
+            backlog += await(client.messageCount(queueName(shard)));
+        }
+        return backlog;
+    }
+
+    static String queueName(int shard) {
+        return QUEUE_PREFIX + shard;
+    }
+
+    private void connect() {
+        if (!client.isConnected()) {
+            await(client.start());
+        }
+    }
+
+    private <T> T await(Future<T> future) {
+        try {
+            return future.toCompletionStage().toCompletableFuture().get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while talking to RabbitMQ", e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new IllegalStateException("RabbitMQ queue operation failed: " + e.getMessage(), e);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        client.stop();
+    }
+}
@@ -0,0 +1,195 @@
+package com.mstrouthos.service;
+
+import com.mstrouthos.validation.SmsValidator;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.StartupEvent;
+import io.quarkus.scheduler.Scheduled;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import java.time.Duration;
+
+/**
+ * Assigns bulk messages to one of {@code sms.queue.shards} shard queues by phone number.
+ *
+ * Shards are chosen with jump consistent hashing (Lamping and Veach), so all messages to a number land
+ * on the same shard, and going from n to n + 1 shards moves only 1/(n + 1) of the numbers, all of them
+ * to the new shard. Shard n is published with routing key "n" and consumed from sms-queue-shard-n.
+ * The number is hashed in its normalized form, so "+357 99 123456" and "+35799123456" share a shard.
+ *
+ * The shard count in use is shared by all replicas in sms_queue_shards. When {@code sms.queue.shards}
+ * differs from it, bulk publishing pauses until sms-queue and the current shard queues are drained and
+ * have stayed empty for {@code sms.queue.reshard-grace}; then the count is switched for every replica.
+ * Messages to a number thus never wait in two queues at once, which would let newer ones overtake.
+ * Bulk publishing also waits until {@link ShardQueues} declared every shard queue, and shard queues
+ * without a consumer are reported, as each processor claims a single shard through SMS_SHARD.
+ */
+@ApplicationScoped
+public class ShardRouter {
+    private static final Logger LOG = Logger.getLogger(ShardRouter.class);
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    @Inject
+    ShardQueues shardQueues;
+
+    @Inject
+    EntityManager entityManager;
+
+    @ConfigProperty(name = "sms.queue.shards", defaultValue = "1")
+    int configuredShards;
+
+    @ConfigProperty(name = "sms.queue.reshard-grace", defaultValue = "30s")
+    Duration reshardGrace;
+
+    // Shard count in use, read from sms_queue_shards
+    private volatile int shards;
+    // Set once the shard queues of the current layout are known to exist
+    private volatile boolean ready;
+    private long drainedSince;
+
+    @PostConstruct
+    void init() {
+        if (configuredShards < 1) {
+            throw new IllegalArgumentException("sms.queue.shards must be at least 1, was " + configuredShards);
+        }
+        shards = configuredShards;
+    }
+
+    void onStart(@Observes StartupEvent event) {
+        check();
+    }
+
+    /**
+     * @return Whether bulk messages can be published now; false while resharding or before the shard
+     *         queues were declared
+     */
+    public boolean isBulkPublishingAllowed() {
+        return ready && shards == configuredShards;
+    }
+
+    /**
+     * @return Whether bulk messages are spread over shard queues rather than sent to sms-queue
+     */
+    public boolean isSharded() {
+        return shards > 1;
+    }
+
+    /**
+     * @return Routing key of the shard owning the phone number
+     */
+    public String routingKey(String phoneNumber) {
+        return String.valueOf(shardOf(phoneNumber, shards));
+    }
+
+    /**
+     * Reloads the shard count in use, declares the shard queues and advances a pending reshard.
+     */
+    @Scheduled(every = "${sms.queue.shard-check-interval:10s}", delayed = "${sms.queue.shard-check-interval:10s}",
+               concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void check() {
+        try {
+            shards = QuarkusTransaction.requiringNew().call(this::loadShards);
+            int layout = Math.max(shards, configuredShards);
+            if (layout > 1) {
+                int[] consumers = shardQueues.declare(layout);
+                for (int shard = 0; shard < consumers.length; shard++) {
+                    if (consumers[shard] == 0) {
+                        LOG.warnf("Shard queue %s has no consumer; start a processor with SMS_SHARD=%d",
+                                  ShardQueues.queueName(shard), shard);
+                    }
+                }
+            }
+            ready = true;
+
+            if (shards != configuredShards) {
+                reshard();
+            }
+        } catch (Exception e) {
+            LOG.error("Failed to check SMS queue shards, will retry on next cycle", e);
+        }
+    }
+
+    private void reshard() {
+        long backlog = shardQueues.backlog(shards > 1 ? shards : 0);
+        long now = System.currentTimeMillis();
+        if (backlog > 0) {
+            drainedSince = 0;
+            LOG.infof("Resharding from %d to %d shards, bulk publishing paused until %d queued messages are consumed",
+                      shards, configuredShards, backlog);
+            return;
+        }
+        if (drainedSince == 0) {
+            drainedSince = now;
+        }
+        // Queue counts exclude delivered but unacked messages, give processors time to finish them
+        if (now - drainedSince < reshardGrace.toMillis()) {
+            return;
+        }
+
+        int previous = shards;
+        boolean switched = QuarkusTransaction.requiringNew().call(() -> entityManager.createNativeQuery(
+                "UPDATE sms_queue_shards SET shards = :shards, changed_at = now() WHERE id = 1 AND shards = :previous")
+            .setParameter("shards", configuredShards)
+            .setParameter("previous", previous)
+            .executeUpdate() == 1);
+        drainedSince = 0;
+        if (switched) {
+            shards = configuredShards;
+            LOG.infof("Resharded bulk SMS traffic from %d to %d shards", previous, configuredShards);
+        }
+    }
+
+    private int loadShards() {
+        // The first replica to start records its configuration
+        entityManager.createNativeQuery(
+                "INSERT INTO sms_queue_shards (id, shards, changed_at) VALUES (1, :shards, now()) ON CONFLICT DO NOTHING")
+            .setParameter("shards", configuredShards)
+            .executeUpdate();
+        return ((Number) entityManager.createNativeQuery("SELECT shards FROM sms_queue_shards WHERE id = 1")
+            .getSingleResult()).intValue();
+    }
+
+    static int shardOf(String phoneNumber, int shards) {
+        return jumpHash(fnv1a(phoneNumber), shards);
+    }
+
+    /**
+     * Jump consistent hash: maps a key to a bucket in [0, buckets) using no memory.
+     */
+    static int jumpHash(long key, int buckets) {
+        long bucket = -1;
+        long next = 0;
+        while (next < buckets) {
+            bucket = next;
+            key = key * 2862933555777941757L + 1;
+            next = (long) ((bucket + 1) * ((double) (1L << 31) / (double) ((key >>> 33) + 1)));
+        }
+        return (int) bucket;
+    }
+
+    // 64-bit FNV-1a over the number without formatting characters; String.hashCode has too few bits
+    // to feed the jump hash
+    private static long fnv1a(String phoneNumber) {
+        long hash = FNV_OFFSET_BASIS;
+        for (int i = 0; i < phoneNumber.length(); i++) {
+            char c = phoneNumber.charAt(i);
+            if (SmsValidator.isFormattingCharacter(c)) {
+                continue;
+            }
+            if (c > 0xff) {
+                hash ^= c >>> 8;
+                hash *= FNV_PRIME;
+            }
+            hash ^= c & 0xff;
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+}
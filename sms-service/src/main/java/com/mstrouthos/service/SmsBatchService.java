@@ -0,0 +1,78 @@
+package com.mstrouthos.service;
+
+import com.mstrouthos.dto.SmsMessage;
+import com.mstrouthos.dto.SmsPriority;
+import com.mstrouthos.dto.SmsScheduledEntry;
+import com.mstrouthos.dto.SmsStatus;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Persists already validated SMS messages in chunks.
+ * Each message is written together with its outbox entry (or schedule, see {@link SmsScheduler}), and every chunk is flushed as
+ * one JDBC batch before the next one is started, which keeps the persistence context bounded.
+ * Publishing to the queue is left to the {@link OutboxRelay}.
+ */
+@ApplicationScoped
+public class SmsBatchService {
+    private static final Logger LOG = Logger.getLogger(SmsBatchService.class);
+
+    @Inject
+    EntityManager entityManager;
+
+    @Inject
+    SmsEventLog smsEventLog;
+
+    @Inject
+    SmsScheduler smsScheduler;
+
+    @ConfigProperty(name = "sms.batch.chunk-size", defaultValue = "100")
+    int chunkSize;
+
+    /**
+     * Persists the given messages and their outbox entries within a single transaction.
+     * Message ids are populated on the passed instances.
+     *
+     * @param messages Validated messages to persist and queue
+     */
+    @Transactional
+    public void persistAndQueue(List<SmsMessage> messages) {
+        LocalDateTime now = LocalDateTime.now();
+        List<SmsEventLog.Event> events = new ArrayList<>(messages.size());
+        List<SmsScheduledEntry> schedules = new ArrayList<>();
+        int pending = 0;
+
+        for (SmsMessage smsMessage : messages) {
+            smsMessage.createdAt = now;
+            smsMessage.status = SmsStatus.QUEUED.name();
+            if (smsMessage.priority == null) {
+                smsMessage.priority = SmsPriority.BULK;
+            }
+            entityManager.persist(smsMessage);
+            SmsScheduledEntry schedule = smsScheduler.enqueue(smsMessage);
+            if (schedule != null) {
+                schedules.add(schedule);
+            }
+            events.add(new SmsEventLog.Event(smsMessage.id, SmsEventLog.QUEUED, now, null));
+
+            if (++pending == chunkSize) {
+                entityManager.flush();
+                entityManager.clear();
+                pending = 0;
+            }
+        }
+
+        smsEventLog.recordOnCommit(events);
+        smsScheduler.scheduleOnCommit(schedules);
+
+        LOG.infof("Persisted and queued %d SMS messages", messages.size());
+    }
+}
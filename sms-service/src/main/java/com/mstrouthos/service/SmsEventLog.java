@@ -0,0 +1,199 @@
+package com.mstrouthos.service;
+
+import com.mstrouthos.dto.SmsMessageEvent;
+import com.mstrouthos.dto.SmsStatus;
+import io.agroal.api.AgroalDataSource;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.scheduler.Scheduled;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+import org.postgresql.PGConnection;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import java.io.IOException;
+import java.io.StringReader;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind log of message lifecycle events into the append-only sms_message_events table.
+ *
+ * Events are buffered in memory and written every {@code sms.events.flush-interval} with a single COPY,
+ * outside of the transactions that produced them. Events of a transaction are only buffered once it
+ * committed. The buffer is bounded by {@code sms.events.max-buffered}; while the database is unavailable
+ * events beyond that are dropped, and events still buffered are lost if the service crashes.
+ */
+@ApplicationScoped
+public class SmsEventLog {
+    private static final Logger LOG = Logger.getLogger(SmsEventLog.class);
+
+    public static final String QUEUED = SmsStatus.QUEUED.name();
+    public static final String DISPATCHED = "DISPATCHED";
+
+    private static final String COPY_SQL =
+        "COPY sms_message_events (message_id, event, occurred_at, error_message) FROM STDIN (FORMAT csv)";
+
+    @Inject
+    AgroalDataSource dataSource;
+
+    @Inject
+    EntityManager entityManager;
+
+    @Inject
+    TransactionSynchronizationRegistry transactionSynchronizationRegistry;
+
+    @ConfigProperty(name = "sms.events.max-buffered", defaultValue = "100000")
+    int maxBuffered;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private List<Event> buffer = new ArrayList<>();
+    private long dropped;
+
+    /**
+     * A lifecycle event of one message.
+     *
+     * @param messageId    Message id
+     * @param event        QUEUED, DISPATCHED or the status reported by a callback
+     * @param occurredAt   When it happened
+     * @param errorMessage Failure reason, if any
+     */
+    public record Event(long messageId, String event, LocalDateTime occurredAt, String errorMessage) {}
+
+    /**
+     * Buffers an event for the next flush.
+     */
+    public void record(Event event) {
+        lock.lock();
+        try {
+            if (buffer.size() < maxBuffered) {
+                buffer.add(event);
+            } else {
+                dropped++;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Buffers the events once the current transaction commits, so rolled back work leaves no history.
+     */
+    public void recordOnCommit(Collection<Event> events) {
+        List<Event> pending = List.copyOf(events);
+        transactionSynchronizationRegistry.registerInterposedSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {}
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status == Status.STATUS_COMMITTED) {
+                    pending.forEach(SmsEventLog.this::record);
+                }
+            }
+        });
+    }
+
+    /**
+     * @return The message's history, oldest first
+     */
+    public List<SmsMessageEvent> findByMessageId(long messageId) {
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = entityManager.createNativeQuery(
+                "SELECT event, occurred_at, error_message FROM sms_message_events " +
+                "WHERE message_id = :messageId ORDER BY occurred_at")
+            .setParameter("messageId", messageId)
+            .getResultList();
+
+        List<SmsMessageEvent> events = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            events.add(new SmsMessageEvent((String) row[0], toLocalDateTime(row[1]), (String) row[2]));
+        }
+        return events;
+    }
+
+    /**
+     * Writes all buffered events with one COPY. On failure the events are kept for the next flush
+     * as far as the buffer has room.
+     */
+    @Scheduled(every = "${sms.events.flush-interval:1s}", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void flush() {
+        List<Event> batch;
+        long droppedSinceLastFlush;
+        lock.lock();
+        try {
+            if (buffer.isEmpty()) {
+                return;
+            }
+            batch = buffer;
+            buffer = new ArrayList<>(Math.min(batch.size(), maxBuffered));
+            droppedSinceLastFlush = dropped;
+            dropped = 0;
+        } finally {
+            lock.unlock();
+        }
+
+        if (droppedSinceLastFlush > 0) {
+            LOG.warnf("Dropped %d message events, event buffer was full", droppedSinceLastFlush);
+        }
+
+        try (Connection connection = dataSource.getConnection()) {
+            long rows = connection.unwrap(PGConnection.class).getCopyAPI()
+                .copyIn(COPY_SQL, new StringReader(toCsv(batch)));
+            LOG.debugf("Wrote %d message events", rows);
+        } catch (SQLException | IOException e) {
+            LOG.errorf("Failed to write %d message events, retrying on next flush: %s", batch.size(), e.getMessage());
+            requeue(batch);
+        }
+    }
+
+    void onStop(@Observes ShutdownEvent event) {
+        flush();
+    }
+
+    private void requeue(List<Event> batch) {
+        lock.lock();
+        try {
+            int room = Math.max(0, maxBuffered - buffer.size());
+            List<Event> retained = new ArrayList<>(batch.subList(0, Math.min(room, batch.size())));
+            dropped += batch.size() - retained.size();
+            retained.addAll(buffer);
+            buffer = retained;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static String toCsv(List<Event> events) {
+        StringBuilder csv = new StringBuilder(events.size() * 64);
+        for (Event event : events) {
+            csv.append(event.messageId()).append(',')
+                .append(event.event()).append(',')
+                .append(event.occurredAt()).append(',');
+            if (event.errorMessage() != null) {
+                // Quoted, with embedded quotes doubled; an unquoted empty field is NULL
+                csv.append('"').append(event.errorMessage().replace("\"", "\"\"")).append('"');
+            }
+            csv.append('\n');
+        }
+        return csv.toString();
+    }
+
+    private static LocalDateTime toLocalDateTime(Object value) {
+        if (value instanceof Timestamp timestamp) {
+            return timestamp.toLocalDateTime();
+        }
+        return (LocalDateTime) value;
+    }
+}
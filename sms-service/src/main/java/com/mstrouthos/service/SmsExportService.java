@@ -0,0 +1,200 @@
+package com.mstrouthos.service;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mstrouthos.dto.SmsMessageFilter;
+import io.agroal.api.AgroalDataSource;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streams SMS messages straight from a server-side cursor to an output stream.
+ * Rows are fetched from PostgreSQL in blocks of {@code sms.export.fetch-size} over a forward-only
+ * result set and written as they arrive, so memory use does not depend on the number of rows exported.
+ * Every column of {@link com.mstrouthos.dto.SmsMessage} is exported, as listed in {@link #COLUMNS}.
+ */
+@ApplicationScoped
+public class SmsExportService {
+    private static final Logger LOG = Logger.getLogger(SmsExportService.class);
+
+    /**
+     * How a column is read and written.
+     */
+    enum ColumnType {
+        NUMBER,
+        TEXT,
+        TIMESTAMP
+    }
+
+    /**
+     * An exported column.
+     *
+     * @param name Column name, also the CSV header
+     * @param field Entity field name, also the NDJSON field
+     */
+    record Column(String name, String field, ColumnType type) {}
+
+    // Columns added to the entity later come last, so CSV columns keep their positions
+    static final List<Column> COLUMNS = List.of(
+        new Column("id", "id", ColumnType.NUMBER),
+        new Column("phone_number", "phoneNumber", ColumnType.TEXT),
+        new Column("message", "text", ColumnType.TEXT),
+        new Column("created_at", "createdAt", ColumnType.TIMESTAMP),
+        new Column("status", "status", ColumnType.TEXT),
+        new Column("priority", "priority", ColumnType.TEXT),
+        new Column("error_message", "errorMessage", ColumnType.TEXT),
+        new Column("delivered_at", "deliveredAt", ColumnType.TIMESTAMP),
+        new Column("send_at", "sendAt", ColumnType.TIMESTAMP));
+
+    private static final String SELECT_COLUMNS = String.join(", ", COLUMNS.stream().map(Column::name).toList());
+    private static final String CSV_HEADER = String.join(",", COLUMNS.stream().map(Column::name).toList()) + "\n";
+
+    @Inject
+    AgroalDataSource dataSource;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @ConfigProperty(name = "sms.export.fetch-size", defaultValue = "1000")
+    int fetchSize;
+
+    /**
+     * Writes every message matching the filter to the output stream, ordered by creation time.
+     *
+     * @param filter Filters to apply
+     * @param format Output format
+     * @param out Destination stream, left open
+     */
+    public void export(SmsMessageFilter filter, ExportFormat format, OutputStream out) throws IOException {
+        List<Object> parameters = new ArrayList<>();
+        String sql = buildQuery(filter, parameters);
+
+        try (Connection connection = dataSource.getConnection()) {
+            // The PostgreSQL driver only uses a cursor (instead of reading the whole result) outside autocommit
+            connection.setAutoCommit(false);
+            connection.setReadOnly(true);
+
+            try (PreparedStatement statement = connection.prepareStatement(
+                    sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                statement.setFetchSize(fetchSize);
+                for (int i = 0; i < parameters.size(); i++) {
+                    statement.setObject(i + 1, parameters.get(i));
+                }
+
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    long rows = format == ExportFormat.CSV ? writeCsv(resultSet, out) : writeNdjson(resultSet, out);
+                    LOG.infof("Exported %d SMS messages as %s", rows, format);
+                }
+            } finally {
+                connection.rollback();
+            }
+        } catch (SQLException e) {
+            throw new IOException("Failed to export SMS messages", e);
+        }
+    }
+
+    private long writeNdjson(ResultSet resultSet, OutputStream out) throws SQLException, IOException {
+        long rows = 0;
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            while (resultSet.next()) {
+                generator.writeStartObject();
+                for (int i = 0; i < COLUMNS.size(); i++) {
+                    Column column = COLUMNS.get(i);
+                    if (column.type() == ColumnType.NUMBER) {
+                        generator.writeNumberField(column.field(), resultSet.getLong(i + 1));
+                    } else {
+                        generator.writeStringField(column.field(), readString(resultSet, i + 1, column));
+                    }
+                }
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+                rows++;
+            }
+        }
+        return rows;
+    }
+
+    private long writeCsv(ResultSet resultSet, OutputStream out) throws SQLException, IOException {
+        long rows = 0;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(CSV_HEADER);
+        while (resultSet.next()) {
+            for (int i = 0; i < COLUMNS.size(); i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writeCsvField(writer, readString(resultSet, i + 1, COLUMNS.get(i)));
+            }
+            writer.write('\n');
+            rows++;
+        }
+        writer.flush();
+        return rows;
+    }
+
+    private static String readString(ResultSet resultSet, int index, Column column) throws SQLException {
+        if (column.type() == ColumnType.TIMESTAMP) {
+            Timestamp timestamp = resultSet.getTimestamp(index);
+            return timestamp == null ? null : timestamp.toLocalDateTime().toString();
+        }
+        return resultSet.getString(index);
+    }
+
+    private static void writeCsvField(Writer writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        boolean quote = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    private static String buildQuery(SmsMessageFilter filter, List<Object> parameters) {
+        StringBuilder sql = new StringBuilder(
+            "SELECT " + SELECT_COLUMNS + " FROM sms_messages WHERE 1 = 1");
+        if (filter != null) {
+            if (filter.status != null) {
+                sql.append(" AND status = ?");
+                parameters.add(filter.status.toUpperCase());
+            }
+            if (filter.phoneNumber != null) {
+                sql.append(" AND phone_number = ?");
+                parameters.add(filter.phoneNumber);
+            }
+            if (filter.from != null) {
+                sql.append(" AND created_at >= ?");
+                parameters.add(Timestamp.valueOf(filter.from));
+            }
+            if (filter.to != null) {
+                sql.append(" AND created_at < ?");
+                parameters.add(Timestamp.valueOf(filter.to));
+            }
+        }
+        sql.append(" ORDER BY created_at, id");
+        return sql.toString();
+    }
+}
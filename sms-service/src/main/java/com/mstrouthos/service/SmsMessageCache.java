@@ -0,0 +1,99 @@
+package com.mstrouthos.service;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.mstrouthos.dto.SmsMessage;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Read-through cache of single SMS messages, serving status polls without a query per poll.
+ *
+ * Messages are loaded from Postgres on a miss and evicted by size and age. Status updates
+ * invalidate their messages once the updating transaction has committed. Another sms-service
+ * replica only sees the change after {@code sms.message-cache.ttl}, so keep it short.
+ * Hit, miss and eviction counts are exported as the {@code sms.messages} cache metrics.
+ */
+@ApplicationScoped
+public class SmsMessageCache {
+
+    @Inject
+    EntityManager entityManager;
+
+    @Inject
+    TransactionSynchronizationRegistry transactionSynchronizationRegistry;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @ConfigProperty(name = "sms.message-cache.size", defaultValue = "100000")
+    long cacheSize;
+
+    @ConfigProperty(name = "sms.message-cache.ttl", defaultValue = "10S")
+    Duration cacheTtl;
+
+    private LoadingCache<Long, SmsMessage> messages;
+
+    @PostConstruct
+    void init() {
+        messages = Caffeine.newBuilder()
+            .maximumSize(cacheSize)
+            .expireAfterWrite(cacheTtl)
+            .recordStats()
+            .build(this::load);
+        CaffeineCacheMetrics.monitor(meterRegistry, messages, "sms.messages");
+    }
+
+    /**
+     * @return The message, or null if it does not exist
+     */
+    public SmsMessage get(Long id) {
+        return messages.get(id);
+    }
+
+    /**
+     * Drops the given message from the cache.
+     */
+    public void invalidate(Long id) {
+        messages.invalidate(id);
+    }
+
+    /**
+     * Drops the given messages from the cache once the current transaction commits.
+     */
+    public void invalidateOnCommit(Collection<Long> ids) {
+        List<Long> invalidated = List.copyOf(ids);
+        transactionSynchronizationRegistry.registerInterposedSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {}
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status == Status.STATUS_COMMITTED) {
+                    messages.invalidateAll(invalidated);
+                }
+            }
+        });
+    }
+
+    private SmsMessage load(Long id) {
+        SmsMessage smsMessage = entityManager.find(SmsMessage.class, id);
+        if (smsMessage != null) {
+            // Cached instances are shared between requests and must not stay attached to one
+            entityManager.detach(smsMessage);
+        }
+        return smsMessage;
+    }
+}
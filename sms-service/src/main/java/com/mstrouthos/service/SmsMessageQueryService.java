@@ -0,0 +1,86 @@
+package com.mstrouthos.service;
+
+import com.mstrouthos.dto.SmsMessage;
+import com.mstrouthos.dto.SmsMessageFilter;
+import com.mstrouthos.dto.SmsMessagePage;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read side for SMS messages.
+ * Pages are fetched with keyset pagination on (created_at, id), newest first,
+ * so every page is a bounded index range scan regardless of how deep the client pages.
+ */
+@ApplicationScoped
+public class SmsMessageQueryService {
+
+    @Inject
+    EntityManager entityManager;
+
+    /**
+     * Fetches the page following the given cursor.
+     *
+     * @param filter Filters to apply
+     * @param cursor Position after which to continue, or null for the first page
+     * @param limit Maximum number of messages to return
+     * @return The page and, when more rows exist, the cursor of the next page
+     */
+    public SmsMessagePage findPage(SmsMessageFilter filter, MessageCursor cursor, int limit) {
+        StringBuilder jpql = new StringBuilder("SELECT s FROM SmsMessage s WHERE 1 = 1");
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        appendFilter(filter, jpql, parameters);
+
+        if (cursor != null) {
+            jpql.append(" AND (s.createdAt, s.id) < (:cursorCreatedAt, :cursorId)");
+            parameters.put("cursorCreatedAt", cursor.getCreatedAt());
+            parameters.put("cursorId", cursor.getId());
+        }
+
+        jpql.append(" ORDER BY s.createdAt DESC, s.id DESC");
+
+        TypedQuery<SmsMessage> query = entityManager.createQuery(jpql.toString(), SmsMessage.class);
+        parameters.forEach(query::setParameter);
+
+        // Fetch one extra row to find out whether another page exists
+        List<SmsMessage> rows = query.setMaxResults(limit + 1).getResultList();
+        if (rows.size() <= limit) {
+            return new SmsMessagePage(rows, null);
+        }
+
+        List<SmsMessage> items = rows.subList(0, limit);
+        SmsMessage last = items.get(limit - 1);
+        return new SmsMessagePage(items, new MessageCursor(last.createdAt, last.id).encode());
+    }
+
+    /**
+     * Appends the WHERE conditions of the filter, using the parameter names
+     * status, phoneNumber, from and to.
+     */
+    private void appendFilter(SmsMessageFilter filter, StringBuilder jpql, Map<String, Object> parameters) {
+        if (filter == null) {
+            return;
+        }
+        if (filter.status != null) {
+            jpql.append(" AND s.status = :status");
+            parameters.put("status", filter.status.toUpperCase());
+        }
+        if (filter.phoneNumber != null) {
+            jpql.append(" AND s.phoneNumber = :phoneNumber");
+            parameters.put("phoneNumber", filter.phoneNumber);
+        }
+        if (filter.from != null) {
+            jpql.append(" AND s.createdAt >= :from");
+            parameters.put("from", filter.from);
+        }
+        if (filter.to != null) {
+            jpql.append(" AND s.createdAt < :to");
+            parameters.put("to", filter.to);
+        }
+    }
+}
\ No newline at end of file
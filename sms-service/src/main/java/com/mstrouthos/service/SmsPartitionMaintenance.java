@@ -0,0 +1,287 @@
+package com.mstrouthos.service;
+
+import io.agroal.api.AgroalDataSource;
+import io.quarkus.runtime.StartupEvent;
+import io.quarkus.scheduler.Scheduled;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+import org.postgresql.PGConnection;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Maintains the monthly partitions of sms_messages and sms_message_events.
+ *
+ * Partitions for the current month and {@code sms.partitions.premake-months} ahead are created at startup
+ * and by a daily job, so inserts never run out of partitions. The same job retires partitions older than
+ * {@code sms.partitions.retention-months}: each is detached, copied to a gzipped CSV file in
+ * {@code sms.partitions.archive-dir} and dropped, which frees the space at once instead of leaving dead rows
+ * for vacuum. A partition is archived again and dropped if a previous run stopped half way.
+ * The legacy partition holding the rows from before partitioning is retired the same way once its upper
+ * bound, and so its newest row, is before the retention window.
+ * Idempotency keys and pending schedules of messages created before the retention window are deleted
+ * along with them. The job holds an advisory lock, so only one replica runs it at a time.
+ */
+@ApplicationScoped
+public class SmsPartitionMaintenance {
+    private static final Logger LOG = Logger.getLogger(SmsPartitionMaintenance.class);
+
+    // Tables partitioned by month as <table>_pYYYYMM, each with a legacy partition created by its migration
+    private static final List<String> PARTITIONED_TABLES = List.of("sms_messages", "sms_message_events");
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("uuuuMM");
+    private static final long ADVISORY_LOCK_KEY = 0x736d735f70617274L;
+    // "partition would overlap", the month is still covered by sms_messages_legacy
+    private static final String OVERLAPPING_PARTITION = "42P17";
+
+    private static final String PARTITIONS_SQL =
+        // Second column: null once detached, true while a concurrent detach is pending
+        "SELECT c.relname, (SELECT i.inhdetachpending FROM pg_inherits i WHERE i.inhrelid = c.oid) " +
+        "FROM pg_class c WHERE c.relkind = 'r' AND c.relname ~ ('^' || ? || '_p[0-9]{6}$')";
+
+    private static final String LEGACY_PARTITION_SQL =
+        // Same second column; third: upper bound of FOR VALUES FROM (MINVALUE) TO ('...'), null once detached
+        "SELECT c.relname, (SELECT i.inhdetachpending FROM pg_inherits i WHERE i.inhrelid = c.oid), " +
+        "substring(pg_get_expr(c.relpartbound, c.oid) from 'TO \\(''([^'']*)''\\)')::timestamp " +
+        "FROM pg_class c WHERE c.relkind = 'r' AND c.relname = ? || '_legacy'";
+
+    @Inject
+    AgroalDataSource dataSource;
+
+    @ConfigProperty(name = "sms.partitions.premake-months", defaultValue = "2")
+    int premakeMonths;
+
+    @ConfigProperty(name = "sms.partitions.retention-months", defaultValue = "12")
+    int retentionMonths;
+
+    @ConfigProperty(name = "sms.partitions.archive-dir", defaultValue = "archive")
+    Path archiveDir;
+
+    void onStart(@Observes StartupEvent event) {
+        maintain(false);
+    }
+
+    @Scheduled(cron = "${sms.partitions.maintenance-cron:0 15 3 * * ?}", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void run() {
+        maintain(true);
+    }
+
+    private void maintain(boolean retire) {
+        // DETACH ... CONCURRENTLY cannot run inside a transaction block, so work in autocommit mode
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(true);
+            if (!tryLock(connection)) {
+                LOG.debug("Partition maintenance is running elsewhere");
+                return;
+            }
+            try {
+                for (String table : PARTITIONED_TABLES) {
+                    createPartitions(connection, table);
+                    if (retire) {
+                        retirePartitions(connection, table);
+                        retireLegacyPartition(connection, table);
+                    }
+                }
+                if (retire) {
+                    deleteExpiredRows(connection);
+                }
+            } finally {
+                unlock(connection);
+            }
+        } catch (SQLException | IOException e) {
+            LOG.error("Partition maintenance failed, will retry on next run", e);
+        }
+    }
+
+    private void createPartitions(Connection connection, String table) throws SQLException {
+        YearMonth current = YearMonth.now();
+        for (int i = 0; i <= premakeMonths; i++) {
+            YearMonth month = current.plusMonths(i);
+            String partition = partitionName(table, month);
+            if (exists(connection, partition)) {
+                continue;
+            }
+
+            try (Statement statement = connection.createStatement()) {
+                statement.execute(String.format(
+                    "CREATE TABLE %s PARTITION OF %s FOR VALUES FROM ('%s') TO ('%s')",
+                    partition, table, month.atDay(1), month.plusMonths(1).atDay(1)));
+                LOG.infof("Created partition %s", partition);
+            } catch (SQLException e) {
+                if (!OVERLAPPING_PARTITION.equals(e.getSQLState())) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private void retirePartitions(Connection connection, String table) throws SQLException, IOException {
+        YearMonth oldestRetained = oldestRetainedMonth();
+        int prefixLength = table.length() + "_p".length();
+
+        List<String> expired = new ArrayList<>();
+        List<String> attached = new ArrayList<>();
+        List<String> detaching = new ArrayList<>();
+        try (PreparedStatement statement = connection.prepareStatement(PARTITIONS_SQL)) {
+            statement.setString(1, table);
+            try (ResultSet partitions = statement.executeQuery()) {
+                while (partitions.next()) {
+                    String partition = partitions.getString(1);
+                    YearMonth month = YearMonth.parse(partition.substring(prefixLength), PARTITION_SUFFIX);
+                    if (month.isBefore(oldestRetained)) {
+                        expired.add(partition);
+                        boolean detachPending = partitions.getBoolean(2);
+                        if (partitions.wasNull()) {
+                            continue;
+                        }
+                        (detachPending ? detaching : attached).add(partition);
+                    }
+                }
+            }
+        }
+
+        for (String partition : expired) {
+            retire(connection, table, partition, attached.contains(partition), detaching.contains(partition));
+        }
+    }
+
+    /**
+     * Retires the partition the migration attached for all rows from before partitioning, once the newest
+     * row it can hold is older than the retention window.
+     */
+    private void retireLegacyPartition(Connection connection, String table) throws SQLException, IOException {
+        String partition;
+        boolean attached;
+        boolean detaching;
+        try (PreparedStatement statement = connection.prepareStatement(LEGACY_PARTITION_SQL)) {
+            statement.setString(1, table);
+            try (ResultSet legacy = statement.executeQuery()) {
+                if (!legacy.next()) {
+                    return;
+                }
+                partition = legacy.getString(1);
+                boolean detachPending = legacy.getBoolean(2);
+                boolean detached = legacy.wasNull();
+                attached = !detached && !detachPending;
+                detaching = !detached && detachPending;
+                Timestamp upperBound = legacy.getTimestamp(3);
+                // A detached legacy partition is left over from a run that stopped before dropping it
+                if (!detached && (upperBound == null
+                        || upperBound.toLocalDateTime().isAfter(oldestRetainedMonth().atDay(1).atStartOfDay()))) {
+                    return;
+                }
+            }
+        }
+        retire(connection, table, partition, attached, detaching);
+    }
+
+    /**
+     * Detaches (unless already detached), archives and drops one partition.
+     */
+    private void retire(Connection connection, String table, String partition, boolean attached, boolean detaching)
+            throws SQLException, IOException {
+        try (Statement statement = connection.createStatement()) {
+            if (attached) {
+                statement.execute("ALTER TABLE " + table + " DETACH PARTITION " + partition + " CONCURRENTLY");
+            } else if (detaching) {
+                // An earlier detach was interrupted
+                statement.execute("ALTER TABLE " + table + " DETACH PARTITION " + partition + " FINALIZE");
+            }
+        }
+        Path archive = archive(connection, partition);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE " + partition);
+        }
+        LOG.infof("Retired partition %s to %s", partition, archive);
+    }
+
+    /**
+     * Deletes rows of unpartitioned tables that refer to messages older than the retention window.
+     */
+    private void deleteExpiredRows(Connection connection) throws SQLException {
+        LocalDate cutoff = oldestRetainedMonth().atDay(1);
+
+        int deleted = deleteCreatedBefore(connection, "sms_idempotency_keys", cutoff);
+        if (deleted > 0) {
+            LOG.infof("Deleted %d idempotency keys created before %s", deleted, cutoff);
+        }
+
+        // Only possible if the retention is shorter than the furthest allowed send time; the message is gone
+        deleted = deleteCreatedBefore(connection, "sms_scheduled", cutoff);
+        if (deleted > 0) {
+            LOG.warnf("Deleted %d pending scheduled sends of messages created before %s", deleted, cutoff);
+        }
+    }
+
+    private static int deleteCreatedBefore(Connection connection, String table, LocalDate cutoff) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "DELETE FROM " + table + " WHERE created_at < ?")) {
+            statement.setTimestamp(1, Timestamp.valueOf(cutoff.atStartOfDay()));
+            return statement.executeUpdate();
+        }
+    }
+
+    private YearMonth oldestRetainedMonth() {
+        return YearMonth.now().minusMonths(retentionMonths);
+    }
+
+    private Path archive(Connection connection, String partition) throws SQLException, IOException {
+        Files.createDirectories(archiveDir);
+        Path archive = archiveDir.resolve(partition + ".csv.gz");
+        Path partial = archiveDir.resolve(partition + ".csv.gz.tmp");
+
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(partial))) {
+            connection.unwrap(PGConnection.class).getCopyAPI()
+                .copyOut("COPY " + partition + " TO STDOUT (FORMAT csv, HEADER)", out);
+        }
+        Files.move(partial, archive, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return archive;
+    }
+
+    private static String partitionName(String table, YearMonth month) {
+        return table + "_p" + month.format(PARTITION_SUFFIX);
+    }
+
+    private static boolean exists(Connection connection, String table) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT to_regclass(?) IS NOT NULL")) {
+            statement.setString(1, table);
+            try (ResultSet result = statement.executeQuery()) {
+                return result.next() && result.getBoolean(1);
+            }
+        }
+    }
+
+    private static boolean tryLock(Connection connection) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT pg_try_advisory_lock(?)")) {
+            statement.setLong(1, ADVISORY_LOCK_KEY);
+            try (ResultSet result = statement.executeQuery()) {
+                return result.next() && result.getBoolean(1);
+            }
+        }
+    }
+
+    private static void unlock(Connection connection) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT pg_advisory_unlock(?)")) {
+            statement.setLong(1, ADVISORY_LOCK_KEY);
+            statement.execute();
+        }
+    }
+}
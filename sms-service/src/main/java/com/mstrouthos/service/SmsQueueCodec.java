@@ -0,0 +1,78 @@
+package com.mstrouthos.service;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIncludeProperties;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.mstrouthos.dto.SmsMessage;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Encodes SMS messages for sms-queue in the format selected by {@code sms.queue.wire-format}.
+ *
+ * CBOR messages carry only what the processor reads, as a positional array without field names.
+ * Switch to CBOR only after all processor-service instances understand it; they decode both
+ * formats based on the content-type, so JSON and CBOR messages can share the queue.
+ */
+@ApplicationScoped
+public class SmsQueueCodec {
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @ConfigProperty(name = "sms.queue.wire-format", defaultValue = "json")
+    WireFormat wireFormat;
+
+    private ObjectWriter writer;
+
+    @PostConstruct
+    void init() {
+        if (wireFormat == WireFormat.CBOR) {
+            writer = compactWriter();
+        } else {
+            writer = objectMapper.writerFor(SmsMessage.class);
+        }
+    }
+
+    public byte[] encode(SmsMessage smsMessage) {
+        try {
+            return writer.writeValueAsBytes(smsMessage);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to encode SMS message " + smsMessage.id, e);
+        }
+    }
+
+    public String getContentType() {
+        return wireFormat.getContentType();
+    }
+
+    /**
+     * @return Writer for the compact CBOR layout
+     */
+    public static ObjectWriter compactWriter() {
+        return CBORMapper.builder()
+            .addModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .addMixIn(SmsMessage.class, CompactSmsMessage.class)
+            .build()
+            .writerFor(SmsMessage.class);
+    }
+
+    /**
+     * CBOR layout of an SmsMessage; must match the processor's decoder.
+     * createdAt is echoed back in status callbacks to locate the message's partition.
+     */
+    @JsonFormat(shape = JsonFormat.Shape.ARRAY)
+    @JsonPropertyOrder({"id", "phoneNumber", "text", "createdAt"})
+    @JsonIncludeProperties({"id", "phoneNumber", "text", "createdAt"})
+    public abstract static class CompactSmsMessage {}
+}
@@ -0,0 +1,363 @@
+package com.mstrouthos.service;
+
+import com.mstrouthos.dto.SmsMessage;
+import com.mstrouthos.dto.SmsOutboxEntry;
+import com.mstrouthos.dto.SmsPriority;
+import com.mstrouthos.dto.SmsScheduledEntry;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.scheduler.Scheduled;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Holds back messages with a future {@code sendAt} and moves them to the outbox when they are due.
+ *
+ * Scheduled messages are persisted right away, with a row in sms_scheduled instead of sms_outbox, so
+ * they survive restarts. Rows due within {@code sms.schedule.load-ahead} are loaded in (send_at, id)
+ * order through the send_at index, in keyset batches, into an in-memory {@link TimingWheel}; at most
+ * {@code sms.schedule.max-loaded} are held at a time, the rest stay in the table until there is room.
+ * When an entry expires its row is deleted and an outbox entry written in the same transaction; the
+ * {@link OutboxRelay} publishes it as usual. Every replica loads every row, and the delete decides
+ * which one releases it, so a message is released once even if several replicas fire it.
+ * Rows nobody released, e.g. scheduled on a replica that stopped, are swept up once overdue.
+ *
+ * Schedules committed on this replica are added to the wheel directly if the loader has already passed
+ * their position, including those committed while a batch was being loaded; schedules the wheel has no
+ * room for rewind the loader to them instead. Either way a row may reach the wheel twice, which only
+ * costs a slot: the release deletes each row once.
+ */
+@ApplicationScoped
+public class SmsScheduler {
+    private static final Logger LOG = Logger.getLogger(SmsScheduler.class);
+
+    private static final int WHEEL_SIZE = 512;
+
+    private static final String LOAD_SQL =
+        "SELECT message_id, send_at FROM sms_scheduled " +
+        "WHERE (send_at, message_id) > (:afterSendAt, :afterId) AND send_at < :horizon " +
+        "ORDER BY send_at, message_id LIMIT :limit";
+
+    private static final String OVERDUE_SQL =
+        "SELECT message_id FROM sms_scheduled WHERE send_at < :overdue ORDER BY send_at, message_id LIMIT :limit";
+
+    private static final String RELEASE_SQL =
+        "DELETE FROM sms_scheduled WHERE message_id IN (:ids) RETURNING message_id, created_at, priority";
+
+    private static final LocalDateTime LOADED_NOTHING = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    @Inject
+    EntityManager entityManager;
+
+    @Inject
+    TransactionSynchronizationRegistry transactionSynchronizationRegistry;
+
+    @ConfigProperty(name = "sms.schedule.tick", defaultValue = "100ms")
+    Duration tick;
+
+    @ConfigProperty(name = "sms.schedule.min-delay", defaultValue = "1s")
+    Duration minDelay;
+
+    @ConfigProperty(name = "sms.schedule.load-ahead", defaultValue = "5m")
+    Duration loadAhead;
+
+    @ConfigProperty(name = "sms.schedule.max-loaded", defaultValue = "1000000")
+    int maxLoaded;
+
+    @ConfigProperty(name = "sms.schedule.batch-size", defaultValue = "1000")
+    int batchSize;
+
+    @ConfigProperty(name = "sms.schedule.overdue-after", defaultValue = "1m")
+    Duration overdueAfter;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private TimingWheel<Long> wheel;
+    private int loaded;
+    // Keyset position up to which rows have been loaded into the wheel
+    private LocalDateTime loadedSendAt = LOADED_NOTHING;
+    private long loadedId;
+    // Schedules found to be due while adding them, released by the next tick
+    private List<Long> pending = new ArrayList<>();
+    // Set while a batch is loaded; schedules committed meanwhile may be missing from it and are kept here
+    private boolean loading;
+    private final List<SmsScheduledEntry> committedWhileLoading = new ArrayList<>();
+
+    @PostConstruct
+    void init() {
+        wheel = new TimingWheel<>(tick.toMillis(), WHEEL_SIZE, System.currentTimeMillis());
+    }
+
+    /**
+     * @return Whether a message with this send time is held back rather than queued right away
+     */
+    public boolean isDeferred(LocalDateTime sendAt) {
+        return sendAt != null && sendAt.isAfter(LocalDateTime.now().plus(minDelay));
+    }
+
+    /**
+     * Writes the message's outbox entry, or its sms_scheduled row if {@link #isDeferred deferred}.
+     * Must run in the transaction persisting the message.
+     *
+     * @return The schedule, to be passed to {@link #scheduleOnCommit}, or null if the message was queued
+     */
+    public SmsScheduledEntry enqueue(SmsMessage smsMessage) {
+        if (!isDeferred(smsMessage.sendAt)) {
+            entityManager.persist(new SmsOutboxEntry(smsMessage.id, smsMessage.createdAt, smsMessage.priority));
+            return null;
+        }
+
+        SmsScheduledEntry entry =
+            new SmsScheduledEntry(smsMessage.id, smsMessage.sendAt, smsMessage.createdAt, smsMessage.priority);
+        entityManager.persist(entry);
+        return entry;
+    }
+
+    /**
+     * Adds schedules to the wheel once the current transaction commits. Only schedules before the
+     * loader's position need this; later ones are picked up by the loader.
+     */
+    public void scheduleOnCommit(List<SmsScheduledEntry> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        List<SmsScheduledEntry> scheduled = List.copyOf(entries);
+        transactionSynchronizationRegistry.registerInterposedSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {}
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status == Status.STATUS_COMMITTED) {
+                    schedule(scheduled);
+                }
+            }
+        });
+    }
+
+    /**
+     * Adds schedules committed elsewhere (e.g. by the reactive send path) to the wheel.
+     */
+    public void schedule(List<SmsScheduledEntry> entries) {
+        lock.lock();
+        try {
+            for (SmsScheduledEntry entry : entries) {
+                if (!entry.sendAt.isAfter(loadedSendAt)) {
+                    addCommitted(entry);
+                } else if (loading) {
+                    committedWhileLoading.add(entry);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Fires the wheel: releases every schedule that expired since the last tick.
+     */
+    @Scheduled(every = "${sms.schedule.tick:100ms}", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void fire() {
+        List<Long> due;
+        lock.lock();
+        try {
+            due = pending;
+            pending = new ArrayList<>();
+            int expired = due.size();
+            wheel.advance(System.currentTimeMillis(), due::add);
+            loaded -= due.size() - expired;
+        } finally {
+            lock.unlock();
+        }
+        release(due);
+    }
+
+    /**
+     * Loads schedules due within the load-ahead window into the wheel, continuing from the last
+     * loaded row, and releases overdue rows nobody released.
+     */
+    @Scheduled(every = "${sms.schedule.load-interval:10s}", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void load() {
+        try {
+            LocalDateTime horizon = LocalDateTime.now().plus(loadAhead);
+            int total = 0;
+            int batch;
+            do {
+                int room;
+                LocalDateTime afterSendAt;
+                long afterId;
+                lock.lock();
+                try {
+                    room = Math.min(batchSize, maxLoaded - loaded);
+                    afterSendAt = loadedSendAt;
+                    afterId = loadedId;
+                    loading = room > 0;
+                } finally {
+                    lock.unlock();
+                }
+                if (room <= 0) {
+                    break;
+                }
+
+                List<Object[]> rows;
+                try {
+                    rows = QuarkusTransaction.requiringNew().call(() -> loadBatch(afterSendAt, afterId, horizon, room));
+                } catch (RuntimeException e) {
+                    endLoading();
+                    throw e;
+                }
+                batch = rows.size();
+                total += batch;
+
+                lock.lock();
+                try {
+                    for (Object[] row : rows) {
+                        long messageId = ((Number) row[0]).longValue();
+                        LocalDateTime sendAt = toLocalDateTime(row[1]);
+                        add(messageId, sendAt);
+                        loadedSendAt = sendAt;
+                        loadedId = messageId;
+                    }
+                    // Commits the batch's snapshot did not see but that now lie behind the loader
+                    for (SmsScheduledEntry entry : committedWhileLoading) {
+                        if (!entry.sendAt.isAfter(loadedSendAt)) {
+                            addCommitted(entry);
+                        }
+                    }
+                    committedWhileLoading.clear();
+                    loading = false;
+                } finally {
+                    lock.unlock();
+                }
+            } while (batch == batchSize);
+
+            if (total > 0) {
+                LOG.infof("Loaded %d scheduled SMS messages due before %s", total, horizon);
+            }
+
+            releaseOverdue();
+        } catch (Exception e) {
+            LOG.error("Failed to load scheduled SMS messages, will retry on next cycle", e);
+        }
+    }
+
+    private void endLoading() {
+        lock.lock();
+        try {
+            // Rows the failed batch would have covered are still ahead of the loader
+            committedWhileLoading.clear();
+            loading = false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Adds a schedule committed behind the loader's position, or moves the loader back to it when
+     * the wheel is full so it is loaded once there is room. Caller holds the lock.
+     */
+    private void addCommitted(SmsScheduledEntry entry) {
+        // Due schedules go straight to pending, which does not count against max-loaded
+        if (loaded < maxLoaded || toMillis(entry.sendAt) < System.currentTimeMillis() + tick.toMillis()) {
+            add(entry.messageId, entry.sendAt);
+            return;
+        }
+        int order = entry.sendAt.compareTo(loadedSendAt);
+        if (order < 0 || (order == 0 && entry.messageId <= loadedId)) {
+            loadedSendAt = entry.sendAt;
+            loadedId = entry.messageId - 1;
+        }
+    }
+
+    // Caller holds the lock
+    private void add(long messageId, LocalDateTime sendAt) {
+        if (wheel.add(messageId, toMillis(sendAt))) {
+            loaded++;
+        } else {
+            pending.add(messageId);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Object[]> loadBatch(LocalDateTime afterSendAt, long afterId, LocalDateTime horizon, int limit) {
+        return entityManager.createNativeQuery(LOAD_SQL)
+            .setParameter("afterSendAt", afterSendAt)
+            .setParameter("afterId", afterId)
+            .setParameter("horizon", horizon)
+            .setParameter("limit", limit)
+            .getResultList();
+    }
+
+    private void releaseOverdue() {
+        LocalDateTime overdue = LocalDateTime.now().minus(overdueAfter);
+        List<Long> ids;
+        do {
+            ids = QuarkusTransaction.requiringNew().call(() -> entityManager.createNativeQuery(OVERDUE_SQL)
+                .setParameter("overdue", overdue)
+                .setParameter("limit", batchSize)
+                .getResultList()
+                .stream()
+                .map(id -> ((Number) id).longValue())
+                .toList());
+            if (!ids.isEmpty()) {
+                LOG.warnf("Releasing %d overdue scheduled SMS messages", ids.size());
+            }
+        } while (release(ids) == batchSize);
+    }
+
+    /**
+     * Moves the given schedules to the outbox in batches, skipping those already released.
+     *
+     * @return Number of schedules moved by this call
+     */
+    private int release(List<Long> messageIds) {
+        int released = 0;
+        for (int from = 0; from < messageIds.size(); from += batchSize) {
+            List<Long> ids = messageIds.subList(from, Math.min(from + batchSize, messageIds.size()));
+            try {
+                released += QuarkusTransaction.requiringNew().call(() -> releaseBatch(ids));
+            } catch (Exception e) {
+                // The rows stay in sms_scheduled and are released by the overdue sweep
+                LOG.errorf("Failed to release %d scheduled SMS messages: %s", ids.size(), e.getMessage());
+            }
+        }
+        return released;
+    }
+
+    private int releaseBatch(List<Long> ids) {
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = entityManager.createNativeQuery(RELEASE_SQL)
+            .setParameter("ids", ids)
+            .getResultList();
+
+        SmsPriority[] priorities = SmsPriority.values();
+        for (Object[] row : rows) {
+            entityManager.persist(new SmsOutboxEntry(
+                ((Number) row[0]).longValue(), toLocalDateTime(row[1]), priorities[((Number) row[2]).intValue()]));
+        }
+        if (!rows.isEmpty()) {
+            LOG.debugf("Released %d scheduled SMS messages to the outbox", rows.size());
+        }
+        return rows.size();
+    }
+
+    private static long toMillis(LocalDateTime dateTime) {
+        return Timestamp.valueOf(dateTime).getTime();
+    }
+
+    private static LocalDateTime toLocalDateTime(Object value) {
+        return value instanceof Timestamp timestamp ? timestamp.toLocalDateTime() : (LocalDateTime) value;
+    }
+}
@@ -0,0 +1,220 @@
+package com.mstrouthos.service;
+
+import com.mstrouthos.dto.SmsStatus;
+import org.hibernate.Session;
+import org.jboss.logging.Logger;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Applies delivery status changes reported by the processor.
+ *
+ * Every change is a single conditional UPDATE that only matches while the stored status ranks
+ * below the new one (see {@link SmsStatus}). The state machine is thus enforced by the database
+ * within one statement, without reading the row first or holding its lock across round trips,
+ * and out-of-order or repeated callbacks simply update nothing.
+ */
+@ApplicationScoped
+public class SmsStatusService {
+    private static final Logger LOG = Logger.getLogger(SmsStatusService.class);
+
+    private static final String STORED_RANK = SmsStatus.rankSql("s.status");
+
+    private static final String UPDATE_SQL = updateSql(false);
+
+    // With the creation time echoed by the processor only the partitions around it are scanned
+    private static final String UPDATE_IN_PARTITION_SQL = updateSql(true);
+
+    private static final String BATCH_UPDATE_SQL =
+        "UPDATE sms_messages s SET status = v.status, error_message = v.error_message, delivered_at = v.delivered_at " +
+        "FROM unnest(?::bigint[], ?::text[], ?::int[], ?::text[], ?::timestamp[]) " +
+        "AS v(id, status, rank, error_message, delivered_at) " +
+        "WHERE s.id = v.id AND " + STORED_RANK + " < v.rank";
+
+    // The created_at bounds let the planner skip every partition outside the batch's time range
+    private static final String BATCH_UPDATE_IN_PARTITION_SQL =
+        "UPDATE sms_messages s SET status = v.status, error_message = v.error_message, delivered_at = v.delivered_at " +
+        "FROM unnest(?::bigint[], ?::text[], ?::int[], ?::text[], ?::timestamp[]) " +
+        "AS v(id, status, rank, error_message, delivered_at) " +
+        "WHERE s.id = v.id AND s.created_at BETWEEN ? AND ? " +
+        "AND " + STORED_RANK + " < v.rank";
+
+    /**
+     * Result of applying a single status change.
+     */
+    public enum Outcome {
+        UPDATED,
+        /** The message already has this or a later status */
+        IGNORED,
+        NOT_FOUND
+    }
+
+    @Inject
+    EntityManager entityManager;
+
+    @Inject
+    SmsMessageCache smsMessageCache;
+
+    @Inject
+    SmsEventLog smsEventLog;
+
+    /**
+     * Applies one status change.
+     */
+    @Transactional
+    public Outcome apply(StatusUpdate update) {
+        boolean inPartition = update.createdAt() != null;
+        Outcome outcome = entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(
+                    inPartition ? UPDATE_IN_PARTITION_SQL : UPDATE_SQL)) {
+                int index = 1;
+                statement.setString(index++, update.status().name());
+                statement.setString(index++, update.errorMessage());
+                statement.setTimestamp(index++, toTimestamp(update.deliveredAt()));
+                statement.setLong(index++, update.id());
+                if (inPartition) {
+                    statement.setTimestamp(index++, toTimestamp(update.createdFrom()));
+                    statement.setTimestamp(index++, toTimestamp(update.createdTo()));
+                }
+                statement.setInt(index++, update.status().getRank());
+                statement.setLong(index++, update.id());
+                if (inPartition) {
+                    statement.setTimestamp(index++, toTimestamp(update.createdFrom()));
+                    statement.setTimestamp(index, toTimestamp(update.createdTo()));
+                }
+                try (ResultSet result = statement.executeQuery()) {
+                    result.next();
+                    if (result.getLong(1) > 0) {
+                        return Outcome.UPDATED;
+                    }
+                    return result.getBoolean(2) ? Outcome.IGNORED : Outcome.NOT_FOUND;
+                }
+            }
+        });
+
+        if (outcome == Outcome.UPDATED) {
+            smsMessageCache.invalidateOnCommit(List.of(update.id()));
+        }
+        if (outcome != Outcome.NOT_FOUND) {
+            smsEventLog.recordOnCommit(List.of(toEvent(update, LocalDateTime.now())));
+        }
+        return outcome;
+    }
+
+    /**
+     * Applies all status changes with a single set-based UPDATE joined against the
+     * update list. When the same message appears more than once the highest ranked
+     * status wins, the first of them if several share that rank.
+     *
+     * @param updates Validated status changes
+     * @return Number of messages updated
+     */
+    @Transactional
+    public int applyBatch(List<StatusUpdate> updates) {
+        Map<Long, StatusUpdate> byId = new LinkedHashMap<>(updates.size() * 2);
+        for (StatusUpdate update : updates) {
+            byId.merge(update.id(), update,
+                (current, next) -> current.status().canTransitionTo(next.status()) ? next : current);
+        }
+
+        // Callbacks of older processors carry no creation time and are matched by id alone
+        List<StatusUpdate> inPartition = new ArrayList<>(byId.size());
+        List<StatusUpdate> byIdOnly = new ArrayList<>();
+        for (StatusUpdate update : byId.values()) {
+            (update.createdAt() != null ? inPartition : byIdOnly).add(update);
+        }
+
+        int updated = entityManager.unwrap(Session.class).doReturningWork(connection ->
+            executeBatch(connection, inPartition, true) + executeBatch(connection, byIdOnly, false));
+
+        smsMessageCache.invalidateOnCommit(byId.keySet());
+
+        // History keeps every callback received, including those the state machine ignored
+        LocalDateTime receivedAt = LocalDateTime.now();
+        List<SmsEventLog.Event> events = new ArrayList<>(updates.size());
+        for (StatusUpdate update : updates) {
+            events.add(toEvent(update, receivedAt));
+        }
+        smsEventLog.recordOnCommit(events);
+
+        LOG.infof("Applied %d status callbacks, %d messages updated", updates.size(), updated);
+        return updated;
+    }
+
+    private static int executeBatch(Connection connection, List<StatusUpdate> updates, boolean inPartition)
+            throws SQLException {
+        if (updates.isEmpty()) {
+            return 0;
+        }
+
+        int size = updates.size();
+        Long[] ids = new Long[size];
+        String[] statuses = new String[size];
+        Integer[] ranks = new Integer[size];
+        String[] errorMessages = new String[size];
+        Timestamp[] deliveredAts = new Timestamp[size];
+        LocalDateTime createdFrom = null;
+        LocalDateTime createdTo = null;
+        int i = 0;
+        for (StatusUpdate update : updates) {
+            ids[i] = update.id();
+            statuses[i] = update.status().name();
+            ranks[i] = update.status().getRank();
+            errorMessages[i] = update.errorMessage();
+            deliveredAts[i] = toTimestamp(update.deliveredAt());
+            if (inPartition) {
+                createdFrom = createdFrom == null || update.createdFrom().isBefore(createdFrom)
+                    ? update.createdFrom() : createdFrom;
+                createdTo = createdTo == null || update.createdTo().isAfter(createdTo)
+                    ? update.createdTo() : createdTo;
+            }
+            i++;
+        }
+
+        try (PreparedStatement statement = connection.prepareStatement(
+                inPartition ? BATCH_UPDATE_IN_PARTITION_SQL : BATCH_UPDATE_SQL)) {
+            statement.setArray(1, connection.createArrayOf("bigint", ids));
+            statement.setArray(2, connection.createArrayOf("text", statuses));
+            statement.setArray(3, connection.createArrayOf("int4", ranks));
+            statement.setArray(4, connection.createArrayOf("text", errorMessages));
+            statement.setArray(5, connection.createArrayOf("timestamp", deliveredAts));
+            if (inPartition) {
+                statement.setTimestamp(6, toTimestamp(createdFrom));
+                statement.setTimestamp(7, toTimestamp(createdTo));
+            }
+            return statement.executeUpdate();
+        }
+    }
+
+    private static String updateSql(boolean inPartition) {
+        return "WITH updated AS (" +
+               "UPDATE sms_messages s SET status = ?, error_message = ?, delivered_at = ? " +
+               "WHERE s.id = ?" + (inPartition ? " AND s.created_at BETWEEN ? AND ?" : "") +
+               " AND " + STORED_RANK + " < ? RETURNING s.id) " +
+               "SELECT (SELECT count(*) FROM updated), " +
+               "EXISTS (SELECT 1 FROM sms_messages WHERE id = ?" +
+               (inPartition ? " AND created_at BETWEEN ? AND ?" : "") + ")";
+    }
+
+    private static Timestamp toTimestamp(LocalDateTime dateTime) {
+        return dateTime != null ? Timestamp.valueOf(dateTime) : null;
+    }
+
+    private static SmsEventLog.Event toEvent(StatusUpdate update, LocalDateTime receivedAt) {
+        LocalDateTime occurredAt = update.deliveredAt() != null ? update.deliveredAt() : receivedAt;
+        return new SmsEventLog.Event(update.id(), update.status().name(), occurredAt, update.errorMessage());
+    }
+}
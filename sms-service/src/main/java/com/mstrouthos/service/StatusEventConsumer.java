@@ -0,0 +1,126 @@
+package com.mstrouthos.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mstrouthos.dto.SmsCallback;
+import io.vertx.core.json.JsonObject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.reactive.messaging.Incoming;
+import org.eclipse.microprofile.reactive.messaging.Message;
+import org.jboss.logging.Logger;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Consumes status events published by processor-service on the sms-status channel.
+ *
+ * Events are buffered and applied with one bulk update per batch, either when
+ * {@code sms.status-events.batch-size} events are buffered or {@code sms.status-events.max-delay-ms}
+ * after the first one arrived. Events are acknowledged only after their batch was committed and
+ * requeued if it failed, so the broker's prefetch limit (max-outstanding-messages) provides backpressure.
+ */
+@ApplicationScoped
+public class StatusEventConsumer {
+    private static final Logger LOG = Logger.getLogger(StatusEventConsumer.class);
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @Inject
+    SmsStatusService smsStatusService;
+
+    @ConfigProperty(name = "sms.status-events.batch-size", defaultValue = "500")
+    int batchSize;
+
+    @ConfigProperty(name = "sms.status-events.max-delay-ms", defaultValue = "100")
+    long maxDelayMs;
+
+    // Single thread: runs the delay timer and the (blocking) database flushes one after another
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "status-event-flusher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private List<StatusUpdate> updates = new ArrayList<>();
+    private List<Message<JsonObject>> messages = new ArrayList<>();
+    private ScheduledFuture<?> pendingFlush;
+
+    @Incoming("sms-status")
+    public CompletionStage<Void> onStatusEvent(Message<JsonObject> message) {
+        StatusUpdate update;
+        try {
+            update = StatusUpdate.of(objectMapper.convertValue(message.getPayload().getMap(), SmsCallback.class));
+        } catch (RuntimeException e) {
+            // Failed batches are requeued; a malformed event would never succeed, so drop it
+            LOG.warnf("Dropping malformed status event: %s", message.getPayload());
+            return message.ack();
+        }
+
+        boolean full = false;
+        lock.lock();
+        try {
+            updates.add(update);
+            messages.add(message);
+
+            if (updates.size() >= batchSize) {
+                full = true;
+            } else if (updates.size() == 1) {
+                pendingFlush = flusher.schedule(this::flush, maxDelayMs, TimeUnit.MILLISECONDS);
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (full) {
+            flusher.execute(this::flush);
+        }
+        return CompletableFuture.completedFuture(null);
+    }
+
+    private void flush() {
+        List<StatusUpdate> batch;
+        List<Message<JsonObject>> batchMessages;
+
+        lock.lock();
+        try {
+            if (updates.isEmpty()) {
+                return;
+            }
+            batch = updates;
+            batchMessages = messages;
+            updates = new ArrayList<>(batchSize);
+            messages = new ArrayList<>(batchSize);
+            if (pendingFlush != null) {
+                pendingFlush.cancel(false);
+                pendingFlush = null;
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        try {
+            smsStatusService.applyBatch(batch);
+            batchMessages.forEach(Message::ack);
+        } catch (Exception e) {
+            LOG.errorf("Failed to apply batch of %d status events: %s", batch.size(), e.getMessage());
+            batchMessages.forEach(batchMessage -> batchMessage.nack(e));
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flusher.shutdown();
+    }
+}
\ No newline at end of file
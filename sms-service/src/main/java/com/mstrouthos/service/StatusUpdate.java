@@ -0,0 +1,82 @@
+package com.mstrouthos.service;
+
+import com.mstrouthos.dto.SmsCallback;
+import com.mstrouthos.dto.SmsStatus;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Validated status change parsed from an {@link SmsCallback}.
+ *
+ * @param id           Message id
+ * @param status       New status
+ * @param errorMessage Failure reason, if any
+ * @param deliveredAt  Delivery time, if reported
+ * @param createdAt    Creation time of the message if echoed by the processor, locates its partition
+ */
+public record StatusUpdate(long id, SmsStatus status, String errorMessage, LocalDateTime deliveredAt,
+                           LocalDateTime createdAt) {
+
+    private static final int MAX_ERROR_MESSAGE_LENGTH = 255;
+
+    // The echoed creation time is not exact: the processor may format it to whole seconds, and the stored
+    // value is rounded to microseconds. It only bounds the partition search, the id identifies the message.
+    private static final Duration CREATED_AT_SLACK = Duration.ofSeconds(1);
+
+    // Accepts the processor's "yyyy-MM-dd HH:mm:ss" as well as ISO-8601
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = new DateTimeFormatterBuilder()
+        .appendPattern("yyyy-MM-dd")
+        .optionalStart().appendLiteral('T').optionalEnd()
+        .optionalStart().appendLiteral(' ').optionalEnd()
+        .append(DateTimeFormatter.ISO_LOCAL_TIME)
+        .toFormatter();
+
+    /**
+     * @throws IllegalArgumentException if the id is not numeric, the status is unknown or a timestamp is malformed
+     */
+    public static StatusUpdate of(SmsCallback callback) {
+        if (callback == null || callback.id == null) {
+            throw new IllegalArgumentException("Missing id");
+        }
+
+        LocalDateTime deliveredAt = parseTimestamp("delivered_at", callback.deliveredAt);
+        LocalDateTime createdAt = parseTimestamp("created_at", callback.createdAt);
+
+        String errorMessage = callback.errorMessage;
+        if (errorMessage != null && errorMessage.length() > MAX_ERROR_MESSAGE_LENGTH) {
+            errorMessage = errorMessage.substring(0, MAX_ERROR_MESSAGE_LENGTH);
+        }
+
+        return new StatusUpdate(Long.parseLong(callback.id), SmsStatus.parse(callback.status), errorMessage,
+                                deliveredAt, createdAt);
+    }
+
+    /**
+     * @return Earliest creation time the stored message can have, null if none was echoed
+     */
+    public LocalDateTime createdFrom() {
+        return createdAt != null ? createdAt.minus(CREATED_AT_SLACK) : null;
+    }
+
+    /**
+     * @return Latest creation time the stored message can have, null if none was echoed
+     */
+    public LocalDateTime createdTo() {
+        return createdAt != null ? createdAt.plus(CREATED_AT_SLACK) : null;
+    }
+
+    private static LocalDateTime parseTimestamp(String field, String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return LocalDateTime.parse(value, TIMESTAMP_FORMAT);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid " + field + ": " + value);
+        }
+    }
+}
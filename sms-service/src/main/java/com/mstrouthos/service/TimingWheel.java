@@ -0,0 +1,98 @@
+package com.mstrouthos.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel: holds items until their expiration time with O(1) insertion and
+ * O(1) expiry per item, independent of how many items are waiting.
+ *
+ * The lowest wheel has {@code wheelSize} buckets of one tick each. Items further out than one
+ * rotation go to an overflow wheel whose ticks span a full rotation of the wheel below, and so on;
+ * when time reaches an overflow bucket its items are cascaded down into finer buckets. Times are in
+ * milliseconds. Not thread safe.
+ *
+ * @param <T> Item type
+ */
+final class TimingWheel<T> {
+
+    private final long tick;
+    private final int wheelSize;
+    private final long interval;
+    private final List<Entry<T>>[] buckets;
+    private long currentTime;
+    private TimingWheel<T> overflow;
+
+    /**
+     * @param tick      Resolution of the lowest wheel in milliseconds
+     * @param wheelSize Buckets per wheel
+     * @param startTime Current time in milliseconds
+     */
+    @SuppressWarnings("unchecked")
+    TimingWheel(long tick, int wheelSize, long startTime) {
+        this.tick = tick;
+        this.wheelSize = wheelSize;
+        this.interval = tick * wheelSize;
+        this.buckets = new List[wheelSize];
+        this.currentTime = startTime - (startTime % tick);
+    }
+
+    /**
+     * @return false if the item is already due, in which case it was not added
+     */
+    boolean add(T item, long expiration) {
+        return add(new Entry<>(item, expiration));
+    }
+
+    /**
+     * Moves the clock forward to the given time and hands every item that expired to the consumer,
+     * in expiration order up to the tick resolution.
+     */
+    void advance(long time, Consumer<T> expired) {
+        advanceEntries(time, entry -> expired.accept(entry.item));
+    }
+
+    private void advanceEntries(long time, Consumer<Entry<T>> due) {
+        while (currentTime + tick <= time) {
+            currentTime += tick;
+            if (overflow != null && currentTime % overflow.tick == 0) {
+                // The overflow bucket starting now holds items of the coming rotation; spread them out
+                overflow.advanceEntries(currentTime, entry -> {
+                    if (!add(entry)) {
+                        due.accept(entry);
+                    }
+                });
+            }
+
+            int index = (int) ((currentTime / tick) % wheelSize);
+            List<Entry<T>> bucket = buckets[index];
+            if (bucket != null) {
+                buckets[index] = null;
+                bucket.forEach(due);
+            }
+        }
+    }
+
+    private boolean add(Entry<T> entry) {
+        if (entry.expiration < currentTime + tick) {
+            return false;
+        }
+        if (entry.expiration < currentTime + interval) {
+            int index = (int) ((entry.expiration / tick) % wheelSize);
+            List<Entry<T>> bucket = buckets[index];
+            if (bucket == null) {
+                bucket = new ArrayList<>();
+                buckets[index] = bucket;
+            }
+            bucket.add(entry);
+            return true;
+        }
+        if (overflow == null) {
+            overflow = new TimingWheel<>(interval, wheelSize, currentTime);
+        }
+        return overflow.add(entry);
+    }
+
+    private record Entry<T>(T item, long expiration) {}
+}
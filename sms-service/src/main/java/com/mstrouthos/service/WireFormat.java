@@ -0,0 +1,21 @@
+package com.mstrouthos.service;
+
+/**
+ * Encodings of SMS messages published on sms-queue, announced through the message content-type.
+ */
+public enum WireFormat {
+    /** The SmsMessage as a JSON object, understood by every processor version */
+    JSON("application/json"),
+    /** CBOR array of [id, phoneNumber, text, createdAt], requires processors that understand application/cbor */
+    CBOR("application/cbor");
+
+    private final String contentType;
+
+    WireFormat(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+}
@@ -4,9 +4,9 @@ import com.mstrouthos.dto.SmsMessage;
 import org.jboss.logging.Logger;
 
 import jakarta.enterprise.context.ApplicationScoped;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.regex.Pattern;
 
 /**
  * Validator for SMS messages.
@@ -16,66 +16,182 @@ import java.util.regex.Pattern;
 public class SmsValidator {
     private static final Logger LOG = Logger.getLogger(SmsValidator.class);
 
-    private static final Pattern PHONE_PATTERN = Pattern.compile("^\\+[1-9][0-9]{6,14}$");;
     private static final int MAX_TEXT_LENGTH = 160;
     private static final int MIN_TEXT_LENGTH = 1;
 
+    // E.164 as accepted by ^\+[1-9][0-9]{6,14}$ after removing formatting characters
+    private static final int MIN_PHONE_LENGTH = 8;
+    private static final int MAX_PHONE_LENGTH = 16;
+
+    private static final int PHONE_VALID = 0;
+    private static final int PHONE_EMPTY_AFTER_NORMALIZATION = 1;
+    private static final int PHONE_INVALID_FORMAT = 2;
+
+    // Scheduled sends may be at most this far ahead
+    private static final int MAX_SCHEDULE_DAYS = 365;
+
+    private static final String TEXT_TOO_LONG_ERROR =
+        String.format("Text message too long. Maximum %d characters allowed", MAX_TEXT_LENGTH);
+
     /**
      * Validates an SMS message request.
+     * Valid requests are checked without allocating; the shared success result is returned.
      * 
      * @param smsMessage The SMS message to validate
      * @return ValidationResult containing validation status and error details
      */
     public ValidationResult validateSmsRequest(SmsMessage smsMessage) {
-        List<String> errors = new ArrayList<>();
-
         if (smsMessage == null) {
             return ValidationResult.failure("Request body is required", 
                                           List.of("Missing SMS message object"));
         }
 
-        validatePhoneNumber(smsMessage.phoneNumber, errors);
-        validateTextMessage(smsMessage.text, errors);
+        List<String> errors = validatePhoneNumber(smsMessage.phoneNumber, null);
+        errors = validateTextMessage(smsMessage.text, errors);
+        errors = validateSendAt(smsMessage.sendAt, errors);
 
-        return errors.isEmpty() ? ValidationResult.success() : ValidationResult.failure(errors);
+        return errors == null ? ValidationResult.success() : ValidationResult.failure(errors);
     }
 
     /**
      * Validates phone number format and presence.
+     *
+     * @return The error list, created on the first error
      */
-    private void validatePhoneNumber(String phoneNumber, List<String> errors) {
-        if (phoneNumber == null || phoneNumber.trim().isEmpty()) {
-            errors.add("Phone number is required");
-            return;
+    private List<String> validatePhoneNumber(String phoneNumber, List<String> errors) {
+        if (phoneNumber == null || isBlank(phoneNumber)) {
+            return addError(errors, "Phone number is required");
         }
 
-        String normalizedPhone = normalizePhoneNumber(phoneNumber);
-        if (normalizedPhone == null || normalizedPhone.trim().isEmpty()) {
-            errors.add("Phone number cannot be empty after normalization");
-            return;
-        }
-
-        if (!PHONE_PATTERN.matcher(normalizedPhone).matches()) {
-            errors.add("Invalid phone number format. Use international format (e.g., +1234567890)");
+        switch (scanPhoneNumber(phoneNumber)) {
+            case PHONE_EMPTY_AFTER_NORMALIZATION:
+                return addError(errors, "Phone number cannot be empty after normalization");
+            case PHONE_INVALID_FORMAT:
+                return addError(errors, "Invalid phone number format. Use international format (e.g., +1234567890)");
+            default:
+                return errors;
         }
     }
 
     /**
      * Validates text message content and length.
+     *
+     * @return The error list, created on the first error
      */
-    private void validateTextMessage(String text, List<String> errors) {
-        if (text == null || text.trim().isEmpty()) {
-            errors.add("Text message is required");
-            return;
+    private List<String> validateTextMessage(String text, List<String> errors) {
+        if (text == null || isBlank(text)) {
+            return addError(errors, "Text message is required");
         }
 
-        if (text.trim().length() < MIN_TEXT_LENGTH) {
-            errors.add("Text message cannot be empty");
+        if (trimmedLength(text) < MIN_TEXT_LENGTH) {
+            errors = addError(errors, "Text message cannot be empty");
         }
 
         if (text.length() > MAX_TEXT_LENGTH) {
-            errors.add(String.format("Text message too long. Maximum %d characters allowed", MAX_TEXT_LENGTH));
+            errors = addError(errors, TEXT_TOO_LONG_ERROR);
+        }
+        return errors;
+    }
+
+    /**
+     * Validates the optional send time; past times are accepted and mean send now.
+     *
+     * @return The error list, created on the first error
+     */
+    private List<String> validateSendAt(LocalDateTime sendAt, List<String> errors) {
+        if (sendAt != null && sendAt.isAfter(LocalDateTime.now().plusDays(MAX_SCHEDULE_DAYS))) {
+            return addError(errors, String.format("Send time must be within %d days", MAX_SCHEDULE_DAYS));
+        }
+        return errors;
+    }
+
+    private static List<String> addError(List<String> errors, String error) {
+        if (errors == null) {
+            errors = new ArrayList<>(2);
+        }
+        errors.add(error);
+        return errors;
+    }
+
+    /**
+     * Normalizes and validates a phone number in a single pass.
+     * Formatting characters (whitespace, dashes, parentheses and dots) are skipped and the
+     * remaining characters are matched against the E.164 shape: '+', a non-zero digit and
+     * 6 to 14 further digits. Empty after normalization means that no character above
+     * U+0020 remains, mirroring {@code String.trim().isEmpty()} on the normalized number.
+     */
+    private static int scanPhoneNumber(String phoneNumber) {
+        int kept = 0;
+        boolean blank = true;
+        boolean matches = true;
+
+        for (int i = 0; i < phoneNumber.length(); i++) {
+            char c = phoneNumber.charAt(i);
+            if (isFormattingCharacter(c)) {
+                continue;
+            }
+            if (c > ' ') {
+                blank = false;
+            }
+            if (matches) {
+                if (kept == 0) {
+                    matches = c == '+';
+                } else if (kept == 1) {
+                    matches = c >= '1' && c <= '9';
+                } else {
+                    matches = kept < MAX_PHONE_LENGTH && c >= '0' && c <= '9';
+                }
+            }
+            kept++;
+        }
+
+        if (blank) {
+            return PHONE_EMPTY_AFTER_NORMALIZATION;
+        }
+        return matches && kept >= MIN_PHONE_LENGTH ? PHONE_VALID : PHONE_INVALID_FORMAT;
+    }
+
+    /**
+     * Characters removed by normalization: \s (space, \t, \n, \x0B, \f, \r), '-', '(', ')' and '.'.
+     */
+    public static boolean isFormattingCharacter(char c) {
+        switch (c) {
+            case ' ':
+            case '\t':
+            case '\n':
+            case '\u000B':
+            case '\f':
+            case '\r':
+            case '-':
+            case '(':
+            case ')':
+            case '.':
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Equivalent to {@code value.trim().isEmpty()} without creating the trimmed string.
+     */
+    private static boolean isBlank(String value) {
+        return trimmedLength(value) == 0;
+    }
+
+    /**
+     * Equivalent to {@code value.trim().length()} without creating the trimmed string.
+     */
+    private static int trimmedLength(String value) {
+        int start = 0;
+        int end = value.length();
+        while (start < end && value.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && value.charAt(end - 1) <= ' ') {
+            end--;
         }
+        return end - start;
     }
 
     /**
@@ -90,28 +206,32 @@ public class SmsValidator {
         }
         
         // Remove spaces, dashes, parentheses, and dots
-        String normalized = phoneNumber.replaceAll("[\\s\\-\\(\\)\\.]+", "");
+        StringBuilder normalized = new StringBuilder(phoneNumber.length());
+        for (int i = 0; i < phoneNumber.length(); i++) {
+            char c = phoneNumber.charAt(i);
+            if (!isFormattingCharacter(c)) {
+                normalized.append(c);
+            }
+        }
         
-        if (!normalized.startsWith("+") && !normalized.isEmpty()) {
+        if (normalized.length() > 0 && normalized.charAt(0) != '+') {
             LOG.warnf("Phone number doesn't start with +, consider adding country code: %s", normalized);
         }
         
-        LOG.infof("Normalized phone number: %s", normalized);
+        LOG.tracef("Normalized phone number: %s", normalized);
 
-        return normalized;
+        return normalized.toString();
     }
 
     /**
      * Validates phone number format only.
      */
     public boolean isValidPhoneNumber(String phoneNumber) {
-        if (phoneNumber == null || phoneNumber.trim().isEmpty()) {
+        if (phoneNumber == null || isBlank(phoneNumber)) {
             return false;
         }
         
-        String normalized = normalizePhoneNumber(phoneNumber);
-        
-        return normalized != null && PHONE_PATTERN.matcher(normalized).matches();
+        return scanPhoneNumber(phoneNumber) == PHONE_VALID;
     }
 
     /**
@@ -119,7 +239,7 @@ public class SmsValidator {
      */
     public boolean isValidTextLength(String text) {
         return text != null && 
-               text.trim().length() >= MIN_TEXT_LENGTH && 
+               trimmedLength(text) >= MIN_TEXT_LENGTH && 
                text.length() <= MAX_TEXT_LENGTH;
     }
 
@@ -7,6 +7,8 @@ import java.util.List;
  * Contains validation status, error messages, and detailed error information.
  */
 public class ValidationResult {
+    private static final ValidationResult SUCCESS = new ValidationResult(true, null, null);
+
     private final boolean valid;
     private final String errorMessage;
     private final List<String> errorDetails;
@@ -18,10 +20,10 @@ public class ValidationResult {
     }
 
     /**
-     * Creates a successful validation result.
+     * Returns the successful validation result. The instance is immutable and shared.
      */
     public static ValidationResult success() {
-        return new ValidationResult(true, null, null);
+        return SUCCESS;
     }
 
     /**
@@ -0,0 +1,13 @@
+-- Requested send time of scheduled messages, kept on the message for reference
+ALTER TABLE sms_messages ADD COLUMN IF NOT EXISTS send_at TIMESTAMP(6);
+
+-- Messages accepted for a later send time. They wait here instead of in sms_outbox and are moved
+-- to the outbox when due, by SmsScheduler, which reads this table in send_at order.
+CREATE TABLE IF NOT EXISTS sms_scheduled (
+    message_id BIGINT       PRIMARY KEY,
+    send_at    TIMESTAMP(6) NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL,
+    priority   SMALLINT     NOT NULL DEFAULT 1
+);
+
+CREATE INDEX IF NOT EXISTS sms_scheduled_send_at_idx ON sms_scheduled (send_at, message_id);
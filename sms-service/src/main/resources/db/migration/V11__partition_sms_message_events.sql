@@ -0,0 +1,32 @@
+-- Range partition sms_message_events by occurred_at, one partition per month (sms_message_events_pYYYYMM),
+-- so history is retired together with the sms_messages partitions instead of growing without bound.
+-- Existing rows stay in sms_message_events_legacy, attached as the partition for everything before next month.
+-- Later partitions are created ahead of time and retired by SmsPartitionMaintenance.
+
+ALTER TABLE sms_message_events RENAME TO sms_message_events_legacy;
+ALTER INDEX IF EXISTS sms_message_events_message_id_idx RENAME TO sms_message_events_legacy_message_id_idx;
+
+CREATE TABLE sms_message_events (
+    message_id    BIGINT       NOT NULL,
+    event         VARCHAR(16)  NOT NULL,
+    occurred_at   TIMESTAMP(6) NOT NULL,
+    error_message VARCHAR(255)
+) PARTITION BY RANGE (occurred_at);
+
+CREATE INDEX sms_message_events_message_id_idx ON sms_message_events (message_id, occurred_at);
+
+DO $$
+DECLARE
+    cutover     timestamp := date_trunc('month', now()) + interval '1 month';
+    month_start timestamp;
+BEGIN
+    EXECUTE format('ALTER TABLE sms_message_events ATTACH PARTITION sms_message_events_legacy FOR VALUES FROM (MINVALUE) TO (%L)',
+                   cutover);
+
+    FOR i IN 0..1 LOOP
+        month_start := cutover + make_interval(months => i);
+        EXECUTE format('CREATE TABLE IF NOT EXISTS %I PARTITION OF sms_message_events FOR VALUES FROM (%L) TO (%L)',
+                       'sms_message_events_p' || to_char(month_start, 'YYYYMM'),
+                       month_start, month_start + interval '1 month');
+    END LOOP;
+END $$;
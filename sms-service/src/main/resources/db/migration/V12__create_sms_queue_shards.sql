@@ -0,0 +1,7 @@
+-- Number of shard queues bulk messages are currently published to (sms.queue.shards), shared by all replicas.
+-- Changed by ShardRouter only after the queues of the previous layout were drained.
+CREATE TABLE IF NOT EXISTS sms_queue_shards (
+    id         SMALLINT     PRIMARY KEY CHECK (id = 1),
+    shards     INT          NOT NULL,
+    changed_at TIMESTAMP(6) NOT NULL
+);
@@ -0,0 +1,8 @@
+-- Baseline schema, equivalent to what hibernate-orm generated before migrations were introduced
+CREATE TABLE IF NOT EXISTS sms_messages (
+    id           BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    phone_number VARCHAR(255) NOT NULL,
+    message      VARCHAR(255) NOT NULL,
+    created_at   TIMESTAMP(6),
+    status       VARCHAR(255)
+);
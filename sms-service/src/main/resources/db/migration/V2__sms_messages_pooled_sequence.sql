@@ -0,0 +1,9 @@
+-- Replace the IDENTITY column with a sequence so Hibernate can pre-allocate id blocks
+-- (pooled optimizer) and batch inserts. INCREMENT BY must match allocationSize on SmsMessage.id.
+CREATE SEQUENCE IF NOT EXISTS sms_messages_seq START WITH 1 INCREMENT BY 100;
+
+ALTER TABLE sms_messages ALTER COLUMN id DROP IDENTITY IF EXISTS;
+
+-- The pooled optimizer treats the value returned by nextval as the upper bound of its block,
+-- so start one full block above the current maximum id to avoid reusing existing ids.
+SELECT setval('sms_messages_seq', COALESCE(MAX(id), 0) + 100, false) FROM sms_messages;
@@ -0,0 +1,15 @@
+-- Keyset pagination orders by (created_at, id), so created_at must always be present
+UPDATE sms_messages SET created_at = now() WHERE created_at IS NULL;
+ALTER TABLE sms_messages ALTER COLUMN created_at SET NOT NULL;
+
+-- Unfiltered listing and time range filters
+CREATE INDEX IF NOT EXISTS idx_sms_messages_created_at_id
+    ON sms_messages (created_at, id);
+
+-- Listing filtered by status, optionally with a time range
+CREATE INDEX IF NOT EXISTS idx_sms_messages_status_created_at_id
+    ON sms_messages (status, created_at, id);
+
+-- Listing filtered by phone number, optionally with a time range
+CREATE INDEX IF NOT EXISTS idx_sms_messages_phone_number_created_at_id
+    ON sms_messages (phone_number, created_at, id);
@@ -0,0 +1,9 @@
+-- Transactional outbox: one row per message waiting to be published to sms-queue.
+-- Rows are written in the same transaction as the message and deleted once the broker confirmed them.
+CREATE SEQUENCE IF NOT EXISTS sms_outbox_seq START WITH 1 INCREMENT BY 100;
+
+CREATE TABLE IF NOT EXISTS sms_outbox (
+    id         BIGINT PRIMARY KEY,
+    message_id BIGINT       NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL
+);
@@ -0,0 +1,6 @@
+-- Delivery class per message; existing messages are treated as bulk traffic.
+ALTER TABLE sms_messages ADD COLUMN IF NOT EXISTS priority VARCHAR(8) NOT NULL DEFAULT 'BULK';
+
+-- Outbox rows carry the priority ordinal (0 = HIGH, 1 = BULK) so the relay can publish high priority rows first.
+ALTER TABLE sms_outbox ADD COLUMN IF NOT EXISTS priority SMALLINT NOT NULL DEFAULT 1;
+CREATE INDEX IF NOT EXISTS sms_outbox_priority_id_idx ON sms_outbox (priority, id);
@@ -0,0 +1,5 @@
+-- Client supplied Idempotency-Key of /send requests; the unique index rejects a second message with the same key.
+ALTER TABLE sms_messages ADD COLUMN IF NOT EXISTS idempotency_key VARCHAR(128);
+
+CREATE UNIQUE INDEX IF NOT EXISTS sms_messages_idempotency_key_idx
+    ON sms_messages (idempotency_key) WHERE idempotency_key IS NOT NULL;
@@ -0,0 +1,3 @@
+-- Details reported with status callbacks.
+ALTER TABLE sms_messages ADD COLUMN IF NOT EXISTS error_message VARCHAR(255);
+ALTER TABLE sms_messages ADD COLUMN IF NOT EXISTS delivered_at TIMESTAMP(6);
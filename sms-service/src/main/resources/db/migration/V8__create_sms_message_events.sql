@@ -0,0 +1,10 @@
+-- Append-only lifecycle history of every message (queued, dispatched, callbacks received).
+-- Written in batches with COPY by sms-service; never updated. No primary key, rows are only read per message.
+CREATE TABLE IF NOT EXISTS sms_message_events (
+    message_id    BIGINT       NOT NULL,
+    event         VARCHAR(16)  NOT NULL,
+    occurred_at   TIMESTAMP(6) NOT NULL,
+    error_message VARCHAR(255)
+);
+
+CREATE INDEX IF NOT EXISTS sms_message_events_message_id_idx ON sms_message_events (message_id, occurred_at);
@@ -0,0 +1,57 @@
+-- Range partition sms_messages by created_at, one partition per month (sms_messages_pYYYYMM).
+-- Existing rows stay in sms_messages_legacy, attached as the partition for everything before next month.
+-- Later partitions are created ahead of time and retired by SmsPartitionMaintenance.
+
+-- The primary key of a partitioned table must contain the partition key, so idempotency keys can no longer
+-- be unique on sms_messages itself and move to their own table.
+CREATE TABLE IF NOT EXISTS sms_idempotency_keys (
+    idempotency_key VARCHAR(128) PRIMARY KEY,
+    message_id      BIGINT       NOT NULL,
+    created_at      TIMESTAMP(6) NOT NULL
+);
+
+INSERT INTO sms_idempotency_keys (idempotency_key, message_id, created_at)
+SELECT idempotency_key, id, created_at FROM sms_messages WHERE idempotency_key IS NOT NULL
+ON CONFLICT DO NOTHING;
+
+ALTER TABLE sms_messages DROP COLUMN IF EXISTS idempotency_key;
+
+-- Free the names for the partitioned table
+ALTER TABLE sms_messages RENAME TO sms_messages_legacy;
+ALTER TABLE sms_messages_legacy RENAME CONSTRAINT sms_messages_pkey TO sms_messages_legacy_pkey;
+ALTER INDEX IF EXISTS idx_sms_messages_created_at_id RENAME TO idx_sms_messages_legacy_created_at_id;
+ALTER INDEX IF EXISTS idx_sms_messages_status_created_at_id RENAME TO idx_sms_messages_legacy_status_created_at_id;
+ALTER INDEX IF EXISTS idx_sms_messages_phone_number_created_at_id RENAME TO idx_sms_messages_legacy_phone_number_created_at_id;
+
+CREATE TABLE sms_messages (
+    id            BIGINT       NOT NULL,
+    phone_number  VARCHAR(255) NOT NULL,
+    message       VARCHAR(255) NOT NULL,
+    created_at    TIMESTAMP(6) NOT NULL,
+    status        VARCHAR(255),
+    priority      VARCHAR(8)   NOT NULL DEFAULT 'BULK',
+    error_message VARCHAR(255),
+    delivered_at  TIMESTAMP(6),
+    PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+-- Same listing indexes as before, created on every partition
+CREATE INDEX idx_sms_messages_created_at_id ON sms_messages (created_at, id);
+CREATE INDEX idx_sms_messages_status_created_at_id ON sms_messages (status, created_at, id);
+CREATE INDEX idx_sms_messages_phone_number_created_at_id ON sms_messages (phone_number, created_at, id);
+
+DO $$
+DECLARE
+    cutover     timestamp := date_trunc('month', now()) + interval '1 month';
+    month_start timestamp;
+BEGIN
+    EXECUTE format('ALTER TABLE sms_messages ATTACH PARTITION sms_messages_legacy FOR VALUES FROM (MINVALUE) TO (%L)',
+                   cutover);
+
+    FOR i IN 0..1 LOOP
+        month_start := cutover + make_interval(months => i);
+        EXECUTE format('CREATE TABLE IF NOT EXISTS %I PARTITION OF sms_messages FOR VALUES FROM (%L) TO (%L)',
+                       'sms_messages_p' || to_char(month_start, 'YYYYMM'),
+                       month_start, month_start + interval '1 month');
+    END LOOP;
+END $$;
@@ -0,0 +1,142 @@
+package com.mstrouthos.service;
+
+import com.mstrouthos.dto.SmsPriority;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Batches claimed by the outbox relay against an in-memory outbox. Like FOR UPDATE SKIP LOCKED within
+ * one transaction, a claim returns rows the batch already claimed again unless they are skipped by id.
+ */
+class OutboxRelayTest {
+
+    private static final int BATCH_SIZE = 500;
+    private static final int HIGH_PRIORITY_WEIGHT = 8;
+    // Rows kept for bulk with the settings above
+    private static final int BULK_SHARE = BATCH_SIZE / (HIGH_PRIORITY_WEIGHT + 1);
+
+    @Test
+    void highPriorityOnlyBacklogFillsWholeBatches() {
+        InMemoryOutbox relay = new InMemoryOutbox();
+        relay.add(SmsPriority.HIGH, 2_000);
+
+        List<Integer> batches = drain(relay, true);
+
+        assertEquals(List.of(500, 500, 500, 500, 0), batches);
+    }
+
+    @Test
+    void highPriorityTakesWholeBatchWhileBulkIsPaused() {
+        InMemoryOutbox relay = new InMemoryOutbox();
+        relay.add(SmsPriority.HIGH, 1_200);
+        relay.add(SmsPriority.BULK, 300);
+
+        List<Integer> batches = drain(relay, false);
+
+        assertEquals(List.of(500, 500, 200), batches);
+        assertEquals(300, relay.waiting(SmsPriority.BULK));
+    }
+
+    @Test
+    void bothBackloggedKeepsTheBulkShare() {
+        InMemoryOutbox relay = new InMemoryOutbox();
+        relay.add(SmsPriority.HIGH, 5_000);
+        relay.add(SmsPriority.BULK, 5_000);
+
+        OutboxRelay.Batch batch = relay.claimBatch(true);
+
+        assertEquals(BATCH_SIZE, batch.rows().size());
+        assertEquals(BULK_SHARE, relay.count(batch, SmsPriority.BULK));
+        assertTrue(batch.more());
+    }
+
+    @Test
+    void bulkOnlyBacklogFillsWholeBatches() {
+        InMemoryOutbox relay = new InMemoryOutbox();
+        relay.add(SmsPriority.BULK, 1_000);
+
+        List<Integer> batches = drain(relay, true);
+
+        assertEquals(List.of(500, 500, 0), batches);
+    }
+
+    @Test
+    void stopsWhenNoClaimComesBackFull() {
+        InMemoryOutbox relay = new InMemoryOutbox();
+        relay.add(SmsPriority.HIGH, 100);
+        relay.add(SmsPriority.BULK, 10);
+
+        OutboxRelay.Batch batch = relay.claimBatch(true);
+
+        assertEquals(110, batch.rows().size());
+        assertFalse(batch.more());
+    }
+
+    /**
+     * Claims and removes batches like drain() until one reports no more rows, checking none is claimed twice.
+     *
+     * @return Size of each batch
+     */
+    private static List<Integer> drain(InMemoryOutbox relay, boolean bulkAllowed) {
+        List<Integer> sizes = new ArrayList<>();
+        OutboxRelay.Batch batch;
+        do {
+            batch = relay.claimBatch(bulkAllowed);
+            Set<Long> ids = new HashSet<>();
+            for (Object[] row : batch.rows()) {
+                assertTrue(ids.add((Long) row[0]), "row " + row[0] + " claimed twice");
+            }
+            relay.remove(ids);
+            sizes.add(batch.rows().size());
+        } while (batch.more());
+        return sizes;
+    }
+
+    private static class InMemoryOutbox extends OutboxRelay {
+        private final Map<SmsPriority, TreeMap<Long, Object[]>> rows = new EnumMap<>(SmsPriority.class);
+        private long nextId = 1;
+
+        InMemoryOutbox() {
+            batchSize = BATCH_SIZE;
+            highPriorityWeight = HIGH_PRIORITY_WEIGHT;
+            for (SmsPriority priority : SmsPriority.values()) {
+                rows.put(priority, new TreeMap<>());
+            }
+        }
+
+        void add(SmsPriority priority, int count) {
+            for (int i = 0; i < count; i++) {
+                long id = nextId++;
+                rows.get(priority).put(id, new Object[] {id, id, null});
+            }
+        }
+
+        void remove(Set<Long> ids) {
+            rows.values().forEach(waiting -> waiting.keySet().removeAll(ids));
+        }
+
+        int waiting(SmsPriority priority) {
+            return rows.get(priority).size();
+        }
+
+        long count(Batch batch, SmsPriority priority) {
+            return batch.rows().stream().filter(row -> rows.get(priority).containsKey((Long) row[0])).count();
+        }
+
+        @Override
+        List<Object[]> claim(SmsPriority priority, long afterId, int limit) {
+            return rows.get(priority).tailMap(afterId, false).values().stream().limit(limit).toList();
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.mstrouthos.service;
+
+import com.mstrouthos.dto.SmsMessage;
+import jakarta.persistence.Column;
+import jakarta.persistence.Id;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The export must stay a full dump of a message as the entity grows.
+ */
+class SmsExportServiceTest {
+
+    @Test
+    void exportsEveryPersistedFieldOfTheEntity() {
+        Map<String, String> entityColumns = new HashMap<>();
+        for (Field field : SmsMessage.class.getDeclaredFields()) {
+            if (Modifier.isStatic(field.getModifiers())) {
+                continue;
+            }
+            Column column = field.getAnnotation(Column.class);
+            if (column != null) {
+                entityColumns.put(field.getName(), column.name());
+            } else if (field.isAnnotationPresent(Id.class)) {
+                entityColumns.put(field.getName(), field.getName());
+            }
+        }
+
+        Map<String, String> exportedColumns = new HashMap<>();
+        for (SmsExportService.Column column : SmsExportService.COLUMNS) {
+            assertEquals(null, exportedColumns.put(column.field(), column.name()), "exported twice: " + column);
+        }
+
+        assertEquals(entityColumns, exportedColumns);
+    }
+
+    @Test
+    void columnTypesMatchTheEntity() throws NoSuchFieldException {
+        for (SmsExportService.Column column : SmsExportService.COLUMNS) {
+            Class<?> type = SmsMessage.class.getField(column.field()).getType();
+            SmsExportService.ColumnType expected = type == LocalDateTime.class ? SmsExportService.ColumnType.TIMESTAMP
+                : Number.class.isAssignableFrom(type) ? SmsExportService.ColumnType.NUMBER
+                : SmsExportService.ColumnType.TEXT;
+            assertEquals(expected, column.type(), column.field());
+        }
+    }
+}
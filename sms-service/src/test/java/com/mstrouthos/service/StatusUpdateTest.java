@@ -0,0 +1,77 @@
+package com.mstrouthos.service;
+
+import com.mstrouthos.dto.SmsCallback;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The creation time echoed in a callback must bound the stored one, however much precision either lost.
+ */
+class StatusUpdateTest {
+
+    private static final DateTimeFormatter PROCESSOR_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    @Test
+    void subMicrosecondCreationTimeIsWithinItsBounds() {
+        LocalDateTime created = LocalDateTime.of(2026, 10, 18, 12, 0, 59, 999_999_501);
+        // timestamp(6) rounds to the nearest microsecond, here into the next minute
+        LocalDateTime stored = roundToMicros(created);
+        assertEquals(LocalDateTime.of(2026, 10, 18, 12, 1), stored);
+
+        assertBounds(update(created.toString()), stored);
+    }
+
+    @Test
+    void creationTimeFormattedToSecondsIsWithinItsBounds() {
+        LocalDateTime stored = LocalDateTime.of(2026, 10, 18, 12, 0, 0, 999_999_000);
+
+        assertBounds(update(stored.format(PROCESSOR_FORMAT)), stored);
+    }
+
+    @Test
+    void boundsStayCloseToTheEchoedTime() {
+        LocalDateTime created = LocalDateTime.of(2026, 10, 31, 23, 59, 59, 123_456_789);
+        StatusUpdate update = update(created.toString());
+
+        assertTrue(ChronoUnit.SECONDS.between(update.createdFrom(), update.createdTo()) <= 2);
+        assertFalse(update.createdFrom().isAfter(created));
+        assertFalse(update.createdTo().isBefore(created));
+    }
+
+    @Test
+    void noBoundsWithoutEchoedCreationTime() {
+        StatusUpdate update = update(null);
+
+        assertNull(update.createdFrom());
+        assertNull(update.createdTo());
+    }
+
+    private static void assertBounds(StatusUpdate update, LocalDateTime stored) {
+        assertFalse(stored.isBefore(update.createdFrom()), stored + " before " + update.createdFrom());
+        assertFalse(stored.isAfter(update.createdTo()), stored + " after " + update.createdTo());
+    }
+
+    private static StatusUpdate update(String createdAt) {
+        SmsCallback callback = new SmsCallback("42", "DELIVERED", null, null);
+        callback.createdAt = createdAt;
+        return StatusUpdate.of(callback);
+    }
+
+    private static LocalDateTime roundToMicros(LocalDateTime time) {
+        long micros = BigDecimal.valueOf(time.getNano())
+            .movePointLeft(3)
+            .setScale(0, RoundingMode.HALF_UP)
+            .longValueExact();
+        return time.withNano(0).plus(micros, ChronoUnit.MICROS);
+    }
+}
@@ -0,0 +1,154 @@
+package com.mstrouthos.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * An item added with expiration e fires on the first advance to a time at or after e rounded down to
+ * the tick, whichever wheel level it was placed on.
+ */
+class TimingWheelTest {
+
+    private static final long TICK = 10;
+    private static final int WHEEL_SIZE = 8;
+    // Span of the lowest wheel and of each overflow level: 80, 640, 5120, 40960 ms
+    private static final long[] LEVEL_SPANS = {80, 640, 5120, 40960};
+
+    private static final long START = 1_000_000;
+
+    @Test
+    void firesEachItemOnItsTickAcrossLevels() {
+        TimingWheel<Long> wheel = new TimingWheel<>(TICK, WHEEL_SIZE, START);
+        List<Long> expirations = new ArrayList<>();
+        for (long span : LEVEL_SPANS) {
+            // Last tick of a level, first tick of the next one and a time within it
+            expirations.add(START + span - 1);
+            expirations.add(START + span);
+            expirations.add(START + span + 7 * TICK + 3);
+        }
+        expirations.add(START + TICK);
+        expirations.add(START + TICK + TICK / 2);
+        for (long expiration : expirations) {
+            assertTrue(wheel.add(expiration, expiration));
+        }
+
+        Map<Long, Long> firedAt = new HashMap<>();
+        long end = START + 2 * LEVEL_SPANS[LEVEL_SPANS.length - 1];
+        for (long time = START; time <= end; time++) {
+            long now = time;
+            wheel.advance(now, expiration -> assertEquals(null, firedAt.put(expiration, now), "fired twice"));
+        }
+
+        assertEquals(expirations.size(), firedAt.size());
+        for (long expiration : expirations) {
+            assertEquals(tickOf(expiration), firedAt.get(expiration), "expiration " + expiration);
+        }
+    }
+
+    @Test
+    void cascadesDownInExpirationOrderOnOneLargeAdvance() {
+        TimingWheel<Long> wheel = new TimingWheel<>(TICK, WHEEL_SIZE, START);
+        Random random = new Random(3);
+        for (int i = 0; i < 1_000; i++) {
+            long expiration = START + TICK + random.nextInt(100_000);
+            wheel.add(expiration, expiration);
+        }
+
+        List<Long> fired = new ArrayList<>();
+        wheel.advance(START + 200_000, fired::add);
+
+        assertEquals(1_000, fired.size());
+        for (int i = 1; i < fired.size(); i++) {
+            assertTrue(tickOf(fired.get(i - 1)) <= tickOf(fired.get(i)), "out of order at " + i);
+        }
+    }
+
+    @Test
+    void holdsSchedulesBeyondTheHorizonOfAllLevels() {
+        TimingWheel<Long> wheel = new TimingWheel<>(TICK, WHEEL_SIZE, START);
+        // Far past the 4 levels above, so further overflow wheels are created
+        long far = START + 50 * LEVEL_SPANS[LEVEL_SPANS.length - 1] + 17;
+        assertTrue(wheel.add(far, far));
+
+        List<Long> fired = new ArrayList<>();
+        wheel.advance(tickOf(far) - 1, fired::add);
+        assertTrue(fired.isEmpty());
+
+        wheel.advance(tickOf(far), fired::add);
+        assertEquals(List.of(far), fired);
+    }
+
+    @Test
+    void addsToOverflowCreatedAfterTheClockMoved() {
+        TimingWheel<Long> wheel = new TimingWheel<>(TICK, WHEEL_SIZE, START);
+        long now = START + 12_345;
+        wheel.advance(now, item -> {});
+
+        long expiration = now + 3 * LEVEL_SPANS[2] + 5;
+        assertTrue(wheel.add(expiration, expiration));
+
+        List<Long> fired = new ArrayList<>();
+        for (long time = now; time <= expiration + TICK; time++) {
+            long at = time;
+            wheel.advance(at, item -> fired.add(at));
+        }
+        assertEquals(List.of(tickOf(expiration)), fired);
+    }
+
+    @Test
+    void rejectsItemsAlreadyDue() {
+        TimingWheel<Long> wheel = new TimingWheel<>(TICK, WHEEL_SIZE, START);
+        assertFalse(wheel.add(1L, START - 1));
+        assertFalse(wheel.add(2L, START));
+        assertFalse(wheel.add(3L, START + TICK - 1));
+        assertTrue(wheel.add(4L, START + TICK));
+    }
+
+    @Test
+    void randomAddsAndAdvances() {
+        TimingWheel<Integer> wheel = new TimingWheel<>(TICK, WHEEL_SIZE, START);
+        Random random = new Random(11);
+        Map<Integer, Long> expirations = new HashMap<>();
+        Map<Integer, Long> firedAt = new HashMap<>();
+        long now = START;
+        long previous = START;
+        int next = 0;
+
+        while (now < START + 1_000_000) {
+            for (int i = random.nextInt(5); i > 0; i--) {
+                long expiration = now + random.nextInt(200_000);
+                int item = next++;
+                if (wheel.add(item, expiration)) {
+                    expirations.put(item, expiration);
+                }
+            }
+            previous = now;
+            now += 1 + random.nextInt(3 * (int) TICK);
+            long at = now;
+            List<Integer> step = new ArrayList<>();
+            wheel.advance(at, step::add);
+            // Everything fired in this step was due after the previous advance and is due now
+            for (int item : step) {
+                assertEquals(null, firedAt.put(item, at), "fired twice");
+                long due = tickOf(expirations.get(item));
+                assertTrue(due > previous && due <= at, "item " + item + " fired at " + at);
+            }
+        }
+        wheel.advance(now + 200_000, item -> firedAt.put(item, -1L));
+
+        assertEquals(expirations.keySet(), firedAt.keySet());
+    }
+
+    private static long tickOf(long time) {
+        return time - time % TICK;
+    }
+}
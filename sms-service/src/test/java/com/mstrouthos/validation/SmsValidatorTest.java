@@ -0,0 +1,168 @@
+package com.mstrouthos.validation;
+
+import com.mstrouthos.dto.SmsMessage;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks that the single-pass phone number scanner accepts and rejects exactly the inputs the
+ * previous replaceAll + PHONE_PATTERN pipeline did, with the same error.
+ */
+class SmsValidatorTest {
+
+    // The pipeline replaced by the scanner
+    private static final Pattern OLD_FORMATTING = Pattern.compile("[\\s\\-\\(\\)\\.]+");
+    private static final Pattern OLD_PHONE_PATTERN = Pattern.compile("^\\+[1-9][0-9]{6,14}$");
+
+    private static final char[] SEPARATORS = {' ', '\t', '\n', '\u000B', '\f', '\r', '-', '(', ')', '.'};
+
+    // Whitespace outside \s, characters trim() strips and non-ASCII digits
+    private static final char[] UNICODE_CHARACTERS = {
+        '\u00A0', '\u2003', '\u3000', '\u2028', '\u0085', '\u001F', '\u0000', '\u001C', '\uFEFF', '\u0661', '\uFF11'
+    };
+
+    private static final char[] ALPHABET = alphabet();
+
+    private final SmsValidator validator = new SmsValidator();
+
+    @Test
+    void boundaryLengths() {
+        for (int digits = 0; digits <= 18; digits++) {
+            String number = "1" + "2".repeat(digits);
+            assertSameOutcome("+" + number);
+            assertSameOutcome(number);
+            assertSameOutcome("+0" + "2".repeat(digits));
+            assertSameOutcome("+" + number + " ");
+            assertSameOutcome("+" + number.replaceAll("(..)", "$1 "));
+        }
+    }
+
+    @Test
+    void everySeparator() {
+        for (char separator : SEPARATORS) {
+            String s = String.valueOf(separator);
+            assertSameOutcome(s + "+35799123456");
+            assertSameOutcome("+357" + s + "99" + s + "123456");
+            assertSameOutcome("+35799123456" + s);
+            assertSameOutcome("+" + s + "35799123456");
+            assertSameOutcome("+357" + s.repeat(5) + "99123456");
+            assertSameOutcome("+1234567890123" + s + "45");
+            assertSameOutcome("+1234" + s + "56");
+            assertSameOutcome(s);
+            assertSameOutcome(s.repeat(3));
+        }
+        assertSameOutcome("+357 (99) 123-456.7");
+    }
+
+    @Test
+    void leadingPlus() {
+        assertSameOutcome("+35799123456");
+        assertSameOutcome("35799123456");
+        assertSameOutcome("++35799123456");
+        assertSameOutcome("3579912345+6");
+        assertSameOutcome("+");
+        assertSameOutcome(" + ");
+        assertSameOutcome("+ 1");
+        assertSameOutcome("00 357 99123456");
+    }
+
+    @Test
+    void unicodeWhitespace() {
+        for (char c : UNICODE_CHARACTERS) {
+            String s = String.valueOf(c);
+            assertSameOutcome(s);
+            assertSameOutcome(s + "+35799123456");
+            assertSameOutcome("+35799123456" + s);
+            assertSameOutcome("+357" + s + "99123456");
+            assertSameOutcome(" " + s + " ");
+            assertSameOutcome("-" + s + "-");
+        }
+    }
+
+    @Test
+    void emptyInput() {
+        assertSameOutcome(null);
+        assertSameOutcome("");
+        assertSameOutcome(" ");
+        assertSameOutcome("\t\n\r");
+        assertSameOutcome("()-.");
+        assertSameOutcome("  -  ");
+        assertSameOutcome("( . )");
+    }
+
+    @Test
+    void normalizationMatchesReplaceAll() {
+        Random random = new Random(42);
+        for (int i = 0; i < 10_000; i++) {
+            String input = randomInput(random);
+            assertEquals(OLD_FORMATTING.matcher(input).replaceAll(""), validator.normalizePhoneNumber(input),
+                         () -> describe(input));
+        }
+    }
+
+    @Test
+    void randomInputs() {
+        Random random = new Random(7);
+        for (int i = 0; i < 200_000; i++) {
+            assertSameOutcome(randomInput(random));
+        }
+    }
+
+    private void assertSameOutcome(String phoneNumber) {
+        String expected = oldError(phoneNumber);
+
+        ValidationResult result = validator.validateSmsRequest(new SmsMessage(phoneNumber, "Hello"));
+        String actual = result.isValid() ? null : result.getErrorDetails().get(0);
+
+        assertEquals(expected, actual, () -> describe(phoneNumber));
+        assertEquals(expected == null, validator.isValidPhoneNumber(phoneNumber), () -> describe(phoneNumber));
+    }
+
+    private static String oldError(String phoneNumber) {
+        if (phoneNumber == null || phoneNumber.trim().isEmpty()) {
+            return "Phone number is required";
+        }
+        String normalized = OLD_FORMATTING.matcher(phoneNumber).replaceAll("");
+        if (normalized.trim().isEmpty()) {
+            return "Phone number cannot be empty after normalization";
+        }
+        if (!OLD_PHONE_PATTERN.matcher(normalized).matches()) {
+            return "Invalid phone number format. Use international format (e.g., +1234567890)";
+        }
+        return null;
+    }
+
+    private static char[] alphabet() {
+        // Digits and '+' twice as likely as the rest, so a fair share of inputs come close to valid
+        StringBuilder alphabet = new StringBuilder("+0123456789+0123456789a");
+        alphabet.append(SEPARATORS);
+        alphabet.append(UNICODE_CHARACTERS);
+        return alphabet.toString().toCharArray();
+    }
+
+    private static String randomInput(Random random) {
+        StringBuilder input = new StringBuilder();
+        if (random.nextBoolean()) {
+            input.append('+');
+        }
+        int length = random.nextInt(20);
+        for (int i = 0; i < length; i++) {
+            input.append(ALPHABET[random.nextInt(ALPHABET.length)]);
+        }
+        return input.toString();
+    }
+
+    private static String describe(String input) {
+        if (input == null) {
+            return "null";
+        }
+        StringBuilder escaped = new StringBuilder();
+        input.chars().forEach(c -> escaped.append(c >= 0x20 && c < 0x7F ? String.valueOf((char) c)
+                                                                           : String.format("\\u%04X", c)));
+        return escaped.toString();
+    }
+}